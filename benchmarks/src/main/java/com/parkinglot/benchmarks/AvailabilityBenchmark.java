@@ -0,0 +1,65 @@
+package com.parkinglot.benchmarks;
+
+import com.parkinglot.ParkingVenue;
+import com.parkinglot.availability.Availability;
+import com.parkinglot.availability.AvailabilityBoard;
+import com.parkinglot.entity.ParkingReceipt;
+import com.parkinglot.entity.ParkingTicket;
+import com.parkinglot.exceptions.ParkingIsFullException;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.parkinglot.enums.Spot.CAR_OR_SUV;
+import static com.parkinglot.enums.Venue.STADIUM;
+
+/**
+ * A gate parking and unparking while signs poll the published board, with a 10 ms publisher running.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Group)
+public class AvailabilityBenchmark {
+
+    private static final LocalDateTime ENTRY = LocalDateTime.of(2022, 5, 29, 14, 0, 0);
+
+    private ParkingVenue venue;
+    private AvailabilityBoard board;
+    private ScheduledExecutorService publisher;
+
+    @Setup
+    public void setUp() {
+        venue = ParkingVenue.createParkingVenue(STADIUM, Map.of(CAR_OR_SUV, 1_000));
+        board = new AvailabilityBoard(venue);
+        publisher = Executors.newSingleThreadScheduledExecutor();
+        board.start(publisher, Duration.ofMillis(10));
+    }
+
+    @TearDown
+    public void tearDown() {
+        publisher.shutdownNow();
+    }
+
+    @Benchmark
+    @Group("board")
+    @GroupThreads(1)
+    public ParkingReceipt gate() throws ParkingIsFullException {
+        ParkingTicket ticket = venue.park(CAR_OR_SUV, ENTRY);
+        return venue.unpark(CAR_OR_SUV, ticket, ENTRY.plusHours(1));
+    }
+
+    @Benchmark
+    @Group("board")
+    @GroupThreads(3)
+    public Availability sign() {
+        return board.current();
+    }
+}
@@ -0,0 +1,63 @@
+package com.parkinglot.benchmarks;
+
+import com.parkinglot.ParkingVenue;
+import com.parkinglot.entity.ParkingReceipt;
+import com.parkinglot.entity.ParkingTicket;
+import com.parkinglot.enums.BatchMode;
+import com.parkinglot.enums.Spot;
+import com.parkinglot.exceptions.ParkingIsFullException;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.parkinglot.enums.Spot.CAR_OR_SUV;
+import static com.parkinglot.enums.Venue.AIRPORT;
+
+/**
+ * A rental fleet of 200 cars arriving and returning: one batch call each way versus 200 single calls.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchBenchmark {
+
+    private static final LocalDateTime ENTRY = LocalDateTime.of(2022, 5, 29, 14, 0, 0);
+    private static final LocalDateTime EXIT = ENTRY.plusHours(30);
+    private static final int FLEET = 200;
+
+    private final ParkingTicket[] tickets = new ParkingTicket[FLEET];
+    private ParkingVenue venue;
+
+    @Setup
+    public void setUp() {
+        venue = ParkingVenue.createParkingVenue(AIRPORT, Map.of(CAR_OR_SUV, 10_000));
+    }
+
+    @Benchmark
+    public long singleCalls() throws ParkingIsFullException {
+        for (int i = 0; i < FLEET; i++) {
+            tickets[i] = venue.park(CAR_OR_SUV, ENTRY);
+        }
+        long revenue = 0;
+        for (ParkingTicket ticket : tickets) {
+            revenue += venue.unpark(CAR_OR_SUV, ticket, EXIT).getFees();
+        }
+        return revenue;
+    }
+
+    @Benchmark
+    public long batchCalls() throws ParkingIsFullException {
+        Map<Spot, List<ParkingTicket>> fleet = venue.parkAll(Map.of(CAR_OR_SUV, FLEET), ENTRY, BatchMode.ALL_OR_NOTHING);
+        long revenue = 0;
+        for (ParkingReceipt receipt : venue.unparkAll(fleet.get(CAR_OR_SUV), EXIT, BatchMode.ALL_OR_NOTHING).values()) {
+            revenue += receipt.getFees();
+        }
+        return revenue;
+    }
+}
@@ -0,0 +1,45 @@
+package com.parkinglot.benchmarks;
+
+import com.parkinglot.enums.Spot;
+import com.parkinglot.enums.Venue;
+import com.parkinglot.tariff.TariffEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fee calculation over every whole-hour stay from one hour up to thirty days.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CalculateFeeBenchmark {
+
+    private static final int MAX_HOURS = 30 * 24;
+
+    @Param({"MALL", "STADIUM", "AIRPORT"})
+    public Venue venueType;
+
+    @Param({"MOTORCYCLE_OR_SCOOTER", "CAR_OR_SUV"})
+    public Spot spot;
+
+    private TariffEngine tariffEngine;
+
+    @Setup
+    public void setUp() {
+        tariffEngine = TariffEngine.getDefault();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MAX_HOURS)
+    public long hourRange() {
+        long total = 0;
+        for (long hours = 1; hours <= MAX_HOURS; hours++) {
+            total += tariffEngine.fee(venueType, spot, hours);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,53 @@
+package com.parkinglot.benchmarks;
+
+import com.parkinglot.entity.ParkingReceipt;
+import com.parkinglot.entity.ParkingTicket;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction and rendering cost of tickets and receipts.
+ * Run with {@code -prof gc} to report the allocation rate.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EntityBenchmark {
+
+    private static final LocalDateTime ENTRY = LocalDateTime.of(2022, 5, 29, 14, 0, 0);
+    private static final LocalDateTime EXIT = ENTRY.plusHours(3).plusMinutes(30);
+
+    private ParkingTicket ticket;
+    private ParkingReceipt receipt;
+
+    @Setup
+    public void setUp() {
+        ticket = new ParkingTicket(1, 42, ENTRY);
+        receipt = new ParkingReceipt(1, ENTRY, EXIT, 40);
+    }
+
+    @Benchmark
+    public ParkingTicket newTicket() {
+        return new ParkingTicket(1, 42, ENTRY);
+    }
+
+    @Benchmark
+    public ParkingReceipt newReceipt() {
+        return new ParkingReceipt(1, ENTRY, EXIT, 40);
+    }
+
+    @Benchmark
+    public String ticketToString() {
+        return ticket.toString();
+    }
+
+    @Benchmark
+    public String receiptToString() {
+        return receipt.toString();
+    }
+}
@@ -0,0 +1,80 @@
+package com.parkinglot.benchmarks;
+
+import com.parkinglot.ParkingVenue;
+import com.parkinglot.gate.GateQueue;
+import com.parkinglot.registry.VenueRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.parkinglot.enums.Spot.CAR_OR_SUV;
+import static com.parkinglot.enums.Venue.STADIUM;
+
+/**
+ * Simulated gate load: {@value #SESSIONS} gate sessions in flight at once over {@value #VENUES} venues,
+ * each parking and then leaving. Compares the per-operation task hand-off of {@link VenueRegistry}
+ * with the batched per-venue {@link GateQueue}. Scores are whole waves of sessions.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GateQueueBenchmark {
+
+    private static final int VENUES = 100;
+    private static final int SESSIONS = 20_000;
+    private static final LocalDateTime ENTRY = LocalDateTime.of(2022, 5, 29, 14, 0, 0);
+    private static final LocalDateTime EXIT = ENTRY.plusHours(3);
+
+    private final String[] venueIds = new String[VENUES];
+    private final GateQueue[] gates = new GateQueue[VENUES];
+    private final CompletableFuture<?>[] sessions = new CompletableFuture<?>[SESSIONS];
+    private VenueRegistry registry;
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp() {
+        int threads = Runtime.getRuntime().availableProcessors();
+        registry = new VenueRegistry(threads);
+        executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < VENUES; i++) {
+            venueIds[i] = "venue-" + i;
+            registry.register(venueIds[i], "region", STADIUM, Map.of(CAR_OR_SUV, SESSIONS / VENUES)).join();
+            ParkingVenue venue = ParkingVenue.createParkingVenue(STADIUM, Map.of(CAR_OR_SUV, SESSIONS / VENUES));
+            gates[i] = new GateQueue(venue, executor, SESSIONS, 256);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        registry.close();
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public void registry() {
+        for (int i = 0; i < SESSIONS; i++) {
+            String venueId = venueIds[i % VENUES];
+            sessions[i] = registry.park(venueId, CAR_OR_SUV, ENTRY)
+                    .thenCompose(ticket -> registry.unpark(venueId, CAR_OR_SUV, ticket, EXIT));
+        }
+        CompletableFuture.allOf(sessions).join();
+    }
+
+    @Benchmark
+    public void gateQueue() {
+        for (int i = 0; i < SESSIONS; i++) {
+            GateQueue gate = gates[i % VENUES];
+            sessions[i] = gate.park(CAR_OR_SUV, ENTRY)
+                    .thenCompose(ticket -> gate.unpark(CAR_OR_SUV, ticket.orElseThrow(), EXIT));
+        }
+        CompletableFuture.allOf(sessions).join();
+    }
+}
@@ -0,0 +1,62 @@
+package com.parkinglot.benchmarks;
+
+import com.parkinglot.journal.Journal;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static com.parkinglot.enums.Spot.CAR_OR_SUV;
+
+/**
+ * Journal append throughput from concurrent gates. With {@code syncOnAppend} every append waits for
+ * group commit, which shows how well forcing is amortised as the gate count grows.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JournalBenchmark {
+
+    @Param({"true", "false"})
+    public boolean syncOnAppend;
+
+    private Path directory;
+    private Journal journal;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal-benchmark");
+        journal = Journal.open(directory, Journal.DEFAULT_RECORDS_PER_SEGMENT, syncOnAppend);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long singleGate() {
+        return append();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long eightGates() {
+        return append();
+    }
+
+    private long append() {
+        return journal.appendPark(CAR_OR_SUV, 1, 1, 1_654_041_600L);
+    }
+}
@@ -0,0 +1,58 @@
+package com.parkinglot.benchmarks;
+
+import com.parkinglot.ParkingVenue;
+import com.parkinglot.allocation.SessionStorage;
+import com.parkinglot.entity.ParkingReceipt;
+import com.parkinglot.exceptions.ParkingIsFullException;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.parkinglot.enums.Spot.CAR_OR_SUV;
+import static com.parkinglot.enums.Venue.AIRPORT;
+
+/**
+ * A long-stay lot held at a fixed occupancy: every operation lets the longest parked car leave and parks a
+ * new one. Run with {@code -prof gc} to compare allocation and collection time of the session storages
+ * as occupancy grows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx1g"})
+@State(Scope.Benchmark)
+public class LongStayBenchmark {
+
+    private static final LocalDateTime ENTRY = LocalDateTime.of(2022, 5, 29, 14, 0, 0);
+    private static final LocalDateTime EXIT = ENTRY.plusDays(14);
+
+    @Param({"HEAP", "OFF_HEAP"})
+    public SessionStorage storage;
+
+    @Param({"100000", "1000000"})
+    public int occupancy;
+
+    private ParkingVenue venue;
+    private long[] ticketNumbers;
+    private int oldest;
+
+    @Setup
+    public void setUp() throws ParkingIsFullException {
+        venue = ParkingVenue.createParkingVenue(AIRPORT, Map.of(CAR_OR_SUV, occupancy + 1), storage);
+        ticketNumbers = new long[occupancy];
+        for (int i = 0; i < occupancy; i++) {
+            ticketNumbers[i] = venue.park(CAR_OR_SUV, ENTRY).getTicketNumber();
+        }
+    }
+
+    @Benchmark
+    public ParkingReceipt leaveAndPark() throws ParkingIsFullException {
+        ParkingReceipt receipt = venue.unpark(ticketNumbers[oldest], EXIT);
+        ticketNumbers[oldest] = venue.park(CAR_OR_SUV, ENTRY).getTicketNumber();
+        oldest = oldest + 1 == ticketNumbers.length ? 0 : oldest + 1;
+        return receipt;
+    }
+}
@@ -0,0 +1,59 @@
+package com.parkinglot.benchmarks;
+
+import com.parkinglot.ParkingVenue;
+import com.parkinglot.entity.ParkingReceipt;
+import com.parkinglot.entity.ParkingTicket;
+import com.parkinglot.exceptions.ParkingIsFullException;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.parkinglot.enums.Spot.CAR_OR_SUV;
+import static com.parkinglot.enums.Venue.MALL;
+
+/**
+ * Park/unpark round trip with and without venue metrics, to keep the instrumentation overhead in check.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsOverheadBenchmark {
+
+    private static final LocalDateTime ENTRY = LocalDateTime.of(2022, 5, 29, 14, 0, 0);
+    private static final LocalDateTime EXIT = ENTRY.plusHours(2);
+
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    private ParkingVenue venue;
+
+    @Setup
+    public void setUp() {
+        venue = ParkingVenue.createParkingVenue(MALL, Map.of(CAR_OR_SUV, 10_000));
+        if (metrics) {
+            venue.enableMetrics("benchmark");
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public ParkingReceipt singleGate() throws ParkingIsFullException {
+        return parkAndUnpark();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public ParkingReceipt fourGates() throws ParkingIsFullException {
+        return parkAndUnpark();
+    }
+
+    private ParkingReceipt parkAndUnpark() throws ParkingIsFullException {
+        ParkingTicket ticket = venue.park(CAR_OR_SUV, ENTRY);
+        return venue.unpark(CAR_OR_SUV, ticket, EXIT);
+    }
+}
@@ -0,0 +1,63 @@
+package com.parkinglot.benchmarks;
+
+import com.parkinglot.ParkingVenue;
+import com.parkinglot.entity.ParkingReceipt;
+import com.parkinglot.entity.ParkingTicket;
+import com.parkinglot.enums.Venue;
+import com.parkinglot.exceptions.ParkingIsFullException;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.parkinglot.enums.Spot.CAR_OR_SUV;
+
+/**
+ * Park/unpark round trip of one vehicle per gate thread, for every venue type.
+ * Run with {@code -prof gc} to report the allocation rate next to throughput and sampled latency.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParkUnparkBenchmark {
+
+    private static final LocalDateTime ENTRY = LocalDateTime.of(2022, 5, 29, 14, 0, 0);
+    private static final LocalDateTime EXIT = ENTRY.plusHours(3).plusMinutes(30);
+
+    @Param({"MALL", "STADIUM", "AIRPORT"})
+    public Venue venueType;
+
+    private ParkingVenue venue;
+
+    @Setup
+    public void setUp() {
+        venue = ParkingVenue.createParkingVenue(venueType, Map.of(CAR_OR_SUV, 10_000));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public ParkingReceipt singleGate() throws ParkingIsFullException {
+        return parkAndUnpark();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public ParkingReceipt fourGates() throws ParkingIsFullException {
+        return parkAndUnpark();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public ParkingReceipt allGates() throws ParkingIsFullException {
+        return parkAndUnpark();
+    }
+
+    private ParkingReceipt parkAndUnpark() throws ParkingIsFullException {
+        ParkingTicket ticket = venue.park(CAR_OR_SUV, ENTRY);
+        return venue.unpark(CAR_OR_SUV, ticket, EXIT);
+    }
+}
@@ -0,0 +1,61 @@
+package com.parkinglot.benchmarks;
+
+import com.parkinglot.ParkingVenue;
+import com.parkinglot.entity.ParkingTicket;
+import com.parkinglot.exceptions.ParkingIsFullException;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static com.parkinglot.enums.Spot.CAR_OR_SUV;
+import static com.parkinglot.enums.Venue.STADIUM;
+
+/**
+ * Entry attempts against a full lot: the throwing {@code park} versus the non-throwing {@code tryPark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RejectionBenchmark {
+
+    private static final LocalDateTime ENTRY = LocalDateTime.of(2022, 5, 29, 14, 0, 0);
+
+    private ParkingVenue venue;
+
+    @Setup
+    public void setUp() throws ParkingIsFullException {
+        venue = ParkingVenue.createParkingVenue(STADIUM, Map.of(CAR_OR_SUV, 1_000));
+        for (int i = 0; i < 1_000; i++) {
+            venue.park(CAR_OR_SUV, ENTRY);
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public ParkingIsFullException park() {
+        try {
+            venue.park(CAR_OR_SUV, ENTRY);
+            throw new IllegalStateException("Lot should be full");
+        } catch (ParkingIsFullException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Optional<ParkingTicket> tryPark() {
+        return venue.tryPark(CAR_OR_SUV, ENTRY);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean hasFreeSpot() {
+        return venue.hasFreeSpot(CAR_OR_SUV);
+    }
+}
@@ -0,0 +1,52 @@
+package com.parkinglot.benchmarks;
+
+import com.parkinglot.enums.Spot;
+import com.parkinglot.rollup.HourlyRollup;
+import com.parkinglot.rollup.RollupTotals;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+import static com.parkinglot.enums.Spot.CAR_OR_SUV;
+
+/**
+ * Recording exits into the hourly rollups and answering 24 hour and 30 day revenue reports from them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RollupBenchmark {
+
+    private static final long NOW = 1_653_832_800L;
+
+    private HourlyRollup rollup;
+    private long exit;
+
+    @Setup
+    public void setUp() {
+        rollup = new HourlyRollup(EnumSet.allOf(Spot.class));
+        for (long second = NOW - HourlyRollup.HOURS * 3600L; second < NOW; second += 60) {
+            rollup.recordExit(CAR_OR_SUV, second, 7200, 60, 100);
+        }
+    }
+
+    @Benchmark
+    public void recordExit() {
+        exit = (exit + 61) % 3600;
+        rollup.recordExit(CAR_OR_SUV, NOW - 3600 + exit, 7200, 60, 100);
+    }
+
+    @Benchmark
+    public RollupTotals lastDay() {
+        return rollup.getTotals(CAR_OR_SUV, NOW - 24 * 3600, NOW);
+    }
+
+    @Benchmark
+    public RollupTotals lastThirtyDays() {
+        return rollup.getTotals(NOW - HourlyRollup.HOURS * 3600L, NOW);
+    }
+}
@@ -0,0 +1,62 @@
+package com.parkinglot.benchmarks;
+
+import com.parkinglot.enums.Spot;
+import com.parkinglot.enums.Venue;
+import com.parkinglot.replay.SessionFile;
+import com.parkinglot.replay.TariffComparison;
+import com.parkinglot.replay.TariffReplay;
+import com.parkinglot.tariff.Tariff;
+import com.parkinglot.tariff.TariffEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.parkinglot.enums.Spot.BUS_OR_TRUCK;
+
+/**
+ * What-if replay of {@value #ROWS} sessions under two tariffs. Divide the row count by the score for rows
+ * per millisecond.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TariffReplayBenchmark {
+
+    private static final int ROWS = 4_000_000;
+
+    private Path file;
+    private Tariff tariff;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("sessions", ".bin");
+        tariff = TariffEngine.getDefault().getTariff();
+        SplittableRandom random = new SplittableRandom(1);
+        try (SessionFile.Writer writer = SessionFile.create(file)) {
+            for (int i = 0; i < ROWS; i++) {
+                Venue venue = Venue.values()[random.nextInt(3)];
+                Spot spot = Spot.values()[random.nextInt(venue == Venue.MALL ? 3 : 2)];
+                long entry = 1_640_995_200L + random.nextInt(365 * 24 * 3600);
+                writer.add(venue, spot == BUS_OR_TRUCK && venue != Venue.MALL ? Spot.CAR_OR_SUV : spot,
+                        entry, entry + random.nextInt(48 * 3600));
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public TariffComparison replay() {
+        return TariffReplay.compare(file, tariff, tariff);
+    }
+}
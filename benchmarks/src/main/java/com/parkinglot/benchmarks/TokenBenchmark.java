@@ -0,0 +1,56 @@
+package com.parkinglot.benchmarks;
+
+import com.parkinglot.entity.ParkingTicket;
+import com.parkinglot.tariff.Tariff;
+import com.parkinglot.tariff.TariffEngine;
+import com.parkinglot.token.TicketCodec;
+import com.parkinglot.token.TicketToken;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static com.parkinglot.enums.Spot.CAR_OR_SUV;
+import static com.parkinglot.enums.Venue.AIRPORT;
+import static java.time.ZoneOffset.UTC;
+
+/**
+ * Exit lane verifying a scanned token and pricing the stay offline. Run with {@code -prof gc} to check that
+ * decoding allocates nothing.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TokenBenchmark {
+
+    private static final LocalDateTime ENTRY = LocalDateTime.of(2022, 6, 1, 7, 30);
+
+    private final TicketCodec codec = new TicketCodec(new byte[16]);
+    private final TicketToken token = new TicketToken();
+    private final StringBuilder scanned = new StringBuilder(TicketCodec.TEXT_LENGTH);
+    private final byte[] binary = new byte[TicketCodec.BINARY_LENGTH];
+    private final long exitEpochSecond = ENTRY.plusHours(13).toEpochSecond(UTC);
+    private Tariff tariff;
+
+    @Setup
+    public void setUp() {
+        tariff = TariffEngine.getDefault().getTariff();
+        ParkingTicket ticket = new ParkingTicket(1_234_567, 4_321, ENTRY);
+        // A scanner fills the same buffer for every vehicle.
+        scanned.append(codec.encode(AIRPORT, CAR_OR_SUV, ticket));
+        codec.encode(AIRPORT, CAR_OR_SUV, 4_321, 1_234_567, ENTRY.toEpochSecond(UTC), binary, 0);
+    }
+
+    @Benchmark
+    public long decodeText() {
+        return codec.decode(scanned, token) ? token.fee(exitEpochSecond, tariff) : -1;
+    }
+
+    @Benchmark
+    public long decodeBinary() {
+        return codec.decode(binary, 0, token) ? token.fee(exitEpochSecond, tariff) : -1;
+    }
+}
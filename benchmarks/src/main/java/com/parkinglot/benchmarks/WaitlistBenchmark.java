@@ -0,0 +1,56 @@
+package com.parkinglot.benchmarks;
+
+import com.parkinglot.ParkingVenue;
+import com.parkinglot.entity.ParkingReceipt;
+import com.parkinglot.entity.ParkingTicket;
+import com.parkinglot.exceptions.ParkingIsFullException;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static com.parkinglot.enums.Spot.CAR_OR_SUV;
+import static com.parkinglot.enums.Venue.STADIUM;
+
+/**
+ * Event-day surge: eight gates compete for two spots. Each vehicle parks and leaves at once; a gate that
+ * finds the lot full either retries {@code tryPark} in a loop or waits in line with a timed {@code park}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WaitlistBenchmark {
+
+    private static final LocalDateTime ENTRY = LocalDateTime.of(2022, 5, 29, 14, 0, 0);
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private ParkingVenue venue;
+
+    @Setup
+    public void setUp() {
+        venue = ParkingVenue.createParkingVenue(STADIUM, Map.of(CAR_OR_SUV, 2));
+    }
+
+    @Benchmark
+    @Threads(8)
+    public ParkingReceipt retry() {
+        Optional<ParkingTicket> ticket;
+        while ((ticket = venue.tryPark(CAR_OR_SUV, ENTRY)).isEmpty()) {
+            Thread.onSpinWait();
+        }
+        return venue.unpark(CAR_OR_SUV, ticket.get(), ENTRY.plusHours(1));
+    }
+
+    @Benchmark
+    @Threads(8)
+    public ParkingReceipt waitInLine() throws ParkingIsFullException, InterruptedException {
+        ParkingTicket ticket = venue.park(CAR_OR_SUV, ENTRY, TIMEOUT);
+        return venue.unpark(CAR_OR_SUV, ticket, ENTRY.plusHours(1));
+    }
+}
@@ -0,0 +1,70 @@
+package com.parkinglot.benchmarks;
+
+import com.parkinglot.allocation.SessionStorage;
+import com.parkinglot.allocation.SpotPool;
+import com.parkinglot.allocation.ZoneIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.parkinglot.enums.Spot.CAR_OR_SUV;
+
+/**
+ * A 50,000 spot garage in 48 zones with 24 gates, each preferring the zones in a different order: nearest
+ * zone claims versus flat lowest-spot claims, with the garage empty and with a random 95% of it taken.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ZoneAllocationBenchmark {
+
+    private static final int ZONES = 48;
+    private static final int GATES = 24;
+    private static final int SPOTS = 50_000;
+
+    @Param({"0.0", "0.95"})
+    public double fill;
+
+    private SpotPool pool;
+    private int gate;
+
+    @Setup
+    public void setUp() {
+        int[] sizes = new int[ZONES];
+        for (int zone = 0; zone < ZONES; zone++) {
+            sizes[zone] = SPOTS / ZONES + (zone < SPOTS % ZONES ? 1 : 0);
+        }
+        int[][] preferences = new int[GATES][ZONES];
+        for (int g = 0; g < GATES; g++) {
+            for (int rank = 0; rank < ZONES; rank++) {
+                preferences[g][rank] = (g * ZONES / GATES + rank) % ZONES;
+            }
+        }
+        pool = new SpotPool(CAR_OR_SUV, new ZoneIndex(sizes, preferences), SessionStorage.HEAP);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int spotNumber = 1; spotNumber <= SPOTS; spotNumber++) {
+            if (random.nextDouble() < fill) {
+                pool.claim(spotNumber);
+            }
+        }
+    }
+
+    @Benchmark
+    public int nearestToGate() {
+        gate = gate + 1 == GATES ? 0 : gate + 1;
+        int spotNumber = pool.claimNearest(gate);
+        pool.release(spotNumber);
+        return spotNumber;
+    }
+
+    @Benchmark
+    public int lowestSpot() {
+        int spotNumber = pool.claim();
+        pool.release(spotNumber);
+        return spotNumber;
+    }
+}
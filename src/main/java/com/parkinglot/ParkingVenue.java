@@ -1,43 +1,165 @@
 package com.parkinglot;
 
+import com.parkinglot.allocation.FreeSpotIndex;
+import com.parkinglot.allocation.NumberSequence;
+import com.parkinglot.allocation.SessionIndex;
+import com.parkinglot.allocation.SessionStorage;
+import com.parkinglot.allocation.SpotPool;
+import com.parkinglot.allocation.ZoneIndex;
 import com.parkinglot.entity.ParkingReceipt;
 import com.parkinglot.entity.ParkingTicket;
 import com.parkinglot.entity.SpotDetails;
+import com.parkinglot.enums.BatchMode;
+import com.parkinglot.enums.ReservationState;
 import com.parkinglot.enums.Spot;
 import com.parkinglot.enums.Venue;
+import com.parkinglot.exceptions.GateNotFoundException;
+import com.parkinglot.exceptions.InvalidTicketException;
 import com.parkinglot.exceptions.ParkingIsFullException;
+import com.parkinglot.exceptions.ReservationNotHeldException;
 import com.parkinglot.exceptions.SpotNotFoundException;
 import com.parkinglot.exceptions.VenueNotFoundException;
+import com.parkinglot.journal.Journal;
+import com.parkinglot.journal.JournalVisitor;
+import com.parkinglot.journal.SnapshotStore;
+import com.parkinglot.journal.SpotSnapshot;
+import com.parkinglot.journal.VenueSnapshot;
+import com.parkinglot.layout.VenueLayout;
+import com.parkinglot.layout.Zone;
+import com.parkinglot.metrics.VenueMetrics;
+import com.parkinglot.reservation.Reservation;
+import com.parkinglot.reservation.ReservationBook;
+import com.parkinglot.rollup.HourlyRollup;
+import com.parkinglot.tariff.TariffEngine;
 import com.parkinglot.venues.Airport;
 import com.parkinglot.venues.Mall;
 import com.parkinglot.venues.Stadium;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
-import java.util.*;
-import java.util.stream.IntStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
-import static com.parkinglot.ParkingVenue.SpotAvailability.AVAILABLE;
-import static com.parkinglot.ParkingVenue.SpotAvailability.OCCUPIED;
 import static java.lang.String.format;
-import static java.util.stream.Collectors.toList;
+import static java.time.ZoneOffset.UTC;
 
 public abstract class ParkingVenue {
 
-    private static final Map<Spot, Map<SpotAvailability, List<SpotDetails>>> SPOTS = new HashMap<>();
+    private static final int NO_GATE = -1;
+
+    private final Map<Spot, SpotPool> spots = new EnumMap<>(Spot.class);
+    private final NumberSequence ticketSequence = new NumberSequence();
+    private final NumberSequence receiptSequence = new NumberSequence();
+    private final Object snapshotLock = new Object();
+    private Journal journal;
+    private final NumberSequence reservationSequence = new NumberSequence();
+    private final SessionIndex sessions = new SessionIndex();
+    private volatile VenueMetrics metrics;
+    private volatile ReservationBook reservations;
+    private volatile HourlyRollup rollup;
+    private VenueLayout layout;
 
     protected abstract Set<Spot> getSupportedSpot();
 
     public abstract Venue getType();
 
-    protected abstract long calculateFee(Spot spotType, long hours);
+    protected long calculateFee(Spot spotType, long hours) {
+        return TariffEngine.getDefault().fee(getType(), spotType, hours);
+    }
+
+    /**
+     * Batch form of {@link #calculateFee}: fills {@code fees[i]} for the first {@code count} stays. Goes
+     * through {@link #calculateFee} so that a venue overriding it charges batches the same.
+     */
+    protected void calculateFees(Spot spotType, long[] hours, long[] fees, int count) {
+        for (int i = 0; i < count; i++) {
+            fees[i] = calculateFee(spotType, hours[i]);
+        }
+    }
 
     public static ParkingVenue createParkingVenue(Venue venue, Map<Spot, Integer> spots) {
+        return createParkingVenue(venue, spots, SessionStorage.HEAP);
+    }
+
+    /**
+     * Creates a venue keeping the sessions of parked vehicles in {@code storage}; off-heap storage keeps
+     * heap usage flat however full a large long-stay lot gets.
+     */
+    public static ParkingVenue createParkingVenue(Venue venue, Map<Spot, Integer> spots, SessionStorage storage) {
         ParkingVenue parkingVenue = createParkingVenue(venue);
-        spots.forEach(parkingVenue::addParkingSpots);
+        spots.forEach((spot, noOfSpots) -> parkingVenue.addParkingSpots(spot, noOfSpots, storage));
         return parkingVenue;
 
     }
+
+    public static ParkingVenue createParkingVenue(Venue venue, Map<Spot, Integer> spots, Journal journal) {
+        return createParkingVenue(venue, spots, SessionStorage.HEAP, journal);
+    }
+
+    /**
+     * Creates a venue that records every park and unpark in {@code journal}. Spot occupancy and ticket
+     * and receipt numbering are first rebuilt from the latest snapshot in the journal directory, if any,
+     * and the journal records written after it.
+     */
+    public static ParkingVenue createParkingVenue(Venue venue, Map<Spot, Integer> spots, SessionStorage storage,
+                                                  Journal journal) {
+        return open(createParkingVenue(venue, spots, storage), spots, journal);
+    }
+
+    public static ParkingVenue createParkingVenue(Venue venue, VenueLayout layout) {
+        return createParkingVenue(venue, layout, SessionStorage.HEAP);
+    }
+
+    /**
+     * Creates a multi-storey venue whose gates {@linkplain #park(Spot, String, LocalDateTime) park} vehicles
+     * in the nearest zone with a free spot. Laid out spot types cannot be {@linkplain #resize resized}.
+     */
+    public static ParkingVenue createParkingVenue(Venue venue, VenueLayout layout, SessionStorage storage) {
+        ParkingVenue parkingVenue = createParkingVenue(venue);
+        parkingVenue.layout = layout;
+        for (Spot spot : layout.getSpots()) {
+            parkingVenue.checkSupported(spot);
+            parkingVenue.spots.put(spot, new SpotPool(spot, layout.createZoneIndex(spot), storage));
+        }
+        return parkingVenue;
+    }
+
+    public static ParkingVenue createParkingVenue(Venue venue, VenueLayout layout, SessionStorage storage,
+                                                  Journal journal) {
+        Map<Spot, Integer> spots = new EnumMap<>(Spot.class);
+        layout.getSpots().forEach(spot -> spots.put(spot, layout.getCapacity(spot)));
+        return open(createParkingVenue(venue, layout, storage), spots, journal);
+    }
+
+    private static ParkingVenue open(ParkingVenue parkingVenue, Map<Spot, Integer> spots, Journal journal) {
+        long replayFrom = journal.getStartPosition();
+        VenueSnapshot snapshot = SnapshotStore.readLatest(journal.getDirectory());
+        if (snapshot != null) {
+            parkingVenue.restore(snapshot);
+            replayFrom = snapshot.getJournalPosition();
+        }
+        if (replayFrom < journal.getStartPosition()) {
+            throw new IllegalStateException(format("Journal in [%s] starts at [%d] but state is only known up to [%d]",
+                    journal.getDirectory(), journal.getStartPosition(), replayFrom));
+        }
+        parkingVenue.recover(journal, replayFrom);
+        // Sessions above the configured capacity, left by a shrink before the restart, drain as usual.
+        spots.forEach((spot, noOfSpots) -> parkingVenue.getSpotPool(spot).resize(noOfSpots));
+        parkingVenue.journal = journal;
+        return parkingVenue;
+    }
+
     private static ParkingVenue createParkingVenue(Venue venue) {
         switch (venue) {
             case MALL:
@@ -50,48 +172,740 @@ public abstract class ParkingVenue {
         throw new VenueNotFoundException(format("Venue is [%s] not having parking", venue));
     }
 
-    private void addParkingSpots(Spot spot, int noOfSpots) {
+    private void addParkingSpots(Spot spot, int noOfSpots, SessionStorage storage) {
+        checkSupported(spot);
+
+        spots.put(spot, new SpotPool(spot, noOfSpots, storage));
+    }
+
+    private void checkSupported(Spot spot) {
         if (!getSupportedSpot().contains(spot)) {
             throw new SpotNotFoundException(format("Spot [%s] is not available in the venue [%s]", spot, getType()));
         }
+    }
+
+    private void restore(VenueSnapshot snapshot) {
+        if (snapshot.getVenue() != getType()) {
+            throw new IllegalStateException(format("Snapshot of a [%s] cannot restore a [%s]", snapshot.getVenue(), getType()));
+        }
+        ticketSequence.advanceTo(snapshot.getTicketSequence());
+        receiptSequence.advanceTo(snapshot.getReceiptSequence());
+        for (SpotSnapshot spotSnapshot : snapshot.getSpots()) {
+            SpotPool spotPool = getSpotPool(spotSnapshot.getSpot());
+            long[] occupied = spotSnapshot.getOccupied();
+            int session = 0;
+            for (int w = 0; w < occupied.length; w++) {
+                for (long word = occupied[w]; word != 0; word &= word - 1) {
+                    int spotNumber = w * Long.SIZE + Long.numberOfTrailingZeros(word) + 1;
+                    provision(spotPool, spotNumber);
+                    spotPool.claim(spotNumber);
+                    long ticketNumber = spotSnapshot.getTicketNumbers()[session];
+                    spotPool.occupy(spotNumber, ticketNumber, spotSnapshot.getEntryEpochSeconds()[session]);
+                    sessions.put(ticketNumber, SessionIndex.session(spotPool.getSpot(), spotNumber));
+                    session++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Replays journal records on top of the current state. Records of the same spot can reach the
+     * journal out of order (an unpark appended after the next park of that spot), so a park always
+     * takes the spot and an unpark only frees it while it is still held by the same ticket.
+     */
+    private void recover(Journal journal, long fromPosition) {
+        journal.replay(fromPosition, new JournalVisitor() {
+            @Override
+            public void onPark(Spot spot, int spotNumber, long ticketNumber, long entryEpochSecond) {
+                SpotPool spotPool = getSpotPool(spot);
+                provision(spotPool, spotNumber);
+                spotPool.claim(spotNumber);
+                spotPool.occupy(spotNumber, ticketNumber, entryEpochSecond);
+                sessions.put(ticketNumber, SessionIndex.session(spot, spotNumber));
+                ticketSequence.advanceTo(ticketNumber);
+            }
+
+            @Override
+            public void onUnpark(Spot spot, int spotNumber, long receiptNumber, long ticketNumber,
+                                 long exitEpochSecond, long fee) {
+                SpotPool spotPool = getSpotPool(spot);
+                if (spotNumber <= spotPool.getProvisioned()) {
+                    spotPool.release(spotNumber, ticketNumber);
+                }
+                sessions.remove(ticketNumber);
+                receiptSequence.advanceTo(receiptNumber);
+            }
+        });
+    }
+
+    // Capacity changes are not journaled, so recovery grows a pool to cover every spot it finds occupied.
+    private static void provision(SpotPool spotPool, int spotNumber) {
+        if (spotNumber > spotPool.getProvisioned()) {
+            spotPool.resize(spotNumber);
+        }
+    }
+
+    /**
+     * Lets every gate thread take ticket and receipt numbers in blocks of {@code blockSize} instead of one
+     * at a time. Numbers stay unique but are no longer issued in global order. Meant to be set before
+     * gates open.
+     */
+    public void setNumberBlockSize(int blockSize) {
+        ticketSequence.setBlockSize(blockSize);
+        receiptSequence.setBlockSize(blockSize);
+    }
+
+    /**
+     * Writes a snapshot of the current occupancy next to the journal and drops the journal segments it
+     * makes redundant. Gates keep parking while the snapshot is taken: the journal position is read
+     * first, and every change that races with the copy is in a record replayed after it.
+     */
+    public void snapshot() {
+        if (journal == null) {
+            throw new IllegalStateException(format("Venue [%s] has no journal", getType()));
+        }
+        synchronized (snapshotLock) {
+            long journalPosition = journal.getNextPosition();
+            long ticketNumber = ticketSequence.current();
+            long receiptNumber = receiptSequence.current();
+            List<SpotSnapshot> spotSnapshots = new ArrayList<>();
+            spots.values().forEach(spotPool -> spotSnapshots.add(capture(spotPool)));
+            SnapshotStore.write(journal.getDirectory(),
+                    new VenueSnapshot(getType(), journalPosition, ticketNumber, receiptNumber, spotSnapshots));
+            journal.truncateBefore(journalPosition);
+        }
+    }
+
+    // A spot caught between its bitmap update and its session update is left out; its journal record follows.
+    // Reserved spots are left out as well: reservations are not journaled and do not survive a restart.
+    private static SpotSnapshot capture(SpotPool spotPool) {
+        long[] occupied = spotPool.occupiedBitmap();
+        long[] ticketNumbers = new long[spotPool.getProvisioned()];
+        long[] entryEpochSeconds = new long[spotPool.getProvisioned()];
+        int sessions = 0;
+        for (int w = 0; w < occupied.length; w++) {
+            for (long word = occupied[w]; word != 0; word &= word - 1) {
+                int spotNumber = w * Long.SIZE + Long.numberOfTrailingZeros(word) + 1;
+                long ticketNumber = spotPool.getTicketNumber(spotNumber);
+                if (ticketNumber <= 0) {
+                    occupied[w] &= ~(word & -word);
+                    continue;
+                }
+                ticketNumbers[sessions] = ticketNumber;
+                entryEpochSeconds[sessions] = spotPool.getEntryEpochSecond(spotNumber);
+                sessions++;
+            }
+        }
+        return new SpotSnapshot(spotPool.getSpot(), spotPool.getCapacity(), occupied,
+                Arrays.copyOf(ticketNumbers, sessions), Arrays.copyOf(entryEpochSeconds, sessions));
+    }
+
+    /**
+     * @return the number of free spots of the given type, {@code 0} if the venue has none of that type
+     */
+    public int getFreeSpots(Spot spot) {
+        SpotPool spotPool = spots.get(spot);
+        return spotPool == null ? 0 : spotPool.getFreeCount();
+    }
+
+    /**
+     * @return the number of occupied spots of the given type, {@code 0} if the venue has none of that type
+     */
+    public int getOccupiedSpots(Spot spot) {
+        SpotPool spotPool = spots.get(spot);
+        return spotPool == null ? 0 : spotPool.getOccupiedCount();
+    }
+
+    /**
+     * @return the spot types this venue was created with
+     */
+    public Set<Spot> getConfiguredSpots() {
+        return Collections.unmodifiableSet(spots.keySet());
+    }
+
+    /**
+     * @return the number of spots of the given type in service, {@code 0} if the venue has none of that type
+     */
+    public int getCapacity(Spot spot) {
+        SpotPool spotPool = spots.get(spot);
+        return spotPool == null ? 0 : spotPool.getCapacity();
+    }
+
+    /**
+     * @return the level and zone of a spot, or empty if the venue has no layout
+     */
+    public Optional<SpotDetails> getSpotDetails(Spot spot, int spotNumber) {
+        return layout == null ? Optional.empty() : layout.getSpotDetails(spot, spotNumber);
+    }
+
+    /**
+     * @return the number of free spots in a zone of the venue layout
+     */
+    public int getFreeSpots(String zone) {
+        Zone details = getZone(zone);
+        ZoneIndex zones = getSpotPool(details.getSpot()).getZones();
+        return zones.getFreeCount(zones.zoneOf(details.getFirstSpotNumber()));
+    }
+
+    /**
+     * @return the number of occupied or reserved spots in a zone of the venue layout
+     */
+    public int getOccupiedSpots(String zone) {
+        Zone details = getZone(zone);
+        ZoneIndex zones = getSpotPool(details.getSpot()).getZones();
+        return zones.getOccupiedCount(zones.zoneOf(details.getFirstSpotNumber()));
+    }
+
+    private Zone getZone(String zone) {
+        if (layout == null) {
+            throw new SpotNotFoundException(format("Venue [%s] has no zones", getType()));
+        }
+        return layout.getZone(zone).orElseThrow(() ->
+                new SpotNotFoundException(format("Zone [%s] is not available in the venue [%s]", zone, getType())));
+    }
+
+    /**
+     * Grows or shrinks the number of spots of the given type while gates keep parking. Added spots can
+     * be taken at once. When shrinking, no vehicle is moved: free spots above {@code capacity} close
+     * immediately and occupied ones close as their vehicles leave, until then they still count as occupied.
+     */
+    public void resize(Spot spot, int capacity) {
+        getSpotPool(spot).resize(capacity);
+    }
+
+    /**
+     * Starts recording park and unpark counts and latencies. Metrics are off by default so that large
+     * venue networks only pay for them where they are scraped.
+     *
+     * @param venueName value of the {@code venue} label on exported samples
+     */
+    public synchronized VenueMetrics enableMetrics(String venueName) {
+        if (metrics == null) {
+            Set<Spot> configuredSpots = EnumSet.noneOf(Spot.class);
+            configuredSpots.addAll(spots.keySet());
+            metrics = new VenueMetrics(venueName, this, configuredSpots);
+        }
+        return metrics;
+    }
+
+    public VenueMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Starts keeping hourly revenue and occupancy rollups of the last thirty days. Off by default: the
+     * rollups take a fixed 75 KB or so per spot type.
+     */
+    public synchronized HourlyRollup enableRollup() {
+        if (rollup == null) {
+            rollup = new HourlyRollup(spots.keySet());
+        }
+        return rollup;
+    }
+
+    public HourlyRollup getRollup() {
+        return rollup;
+    }
 
-        List<SpotDetails> availableSpots = IntStream.range(1, noOfSpots + 1)
-                .boxed()
-                .map(spotNumber -> new SpotDetails(spot, spotNumber))
-                .collect(toList());
+    private SpotPool getSpotPool(Spot spot) {
+        SpotPool spotPool = spots.get(spot);
+        if (spotPool == null) {
+            throw new SpotNotFoundException(format("Spot [%s] is not available in the venue [%s]", spot, getType()));
+        }
+        return spotPool;
+    }
 
-        SPOTS.put(
-                spot,
-                Map.of(AVAILABLE, availableSpots, OCCUPIED, new ArrayList<>()));
+    /**
+     * Lock-free availability check, e.g. for a gate display. A {@code true} result is only a hint:
+     * another gate may take the last spot before this one parks.
+     */
+    public boolean hasFreeSpot(Spot spot) {
+        return getFreeSpots(spot) > 0;
     }
 
-    public synchronized ParkingTicket park(Spot spot, LocalDateTime entryDateTime)
+    public ParkingTicket park(Spot spot, LocalDateTime entryDateTime)
             throws ParkingIsFullException {
-        if (SPOTS.get(spot).get(AVAILABLE).isEmpty()) {
+        Optional<ParkingTicket> ticket = tryPark(spot, entryDateTime);
+        if (ticket.isEmpty()) {
             throw new ParkingIsFullException("Parking is Full");
         }
+        return ticket.get();
+    }
 
-        SpotDetails allocatedSpotDetails = SPOTS.get(spot).get(AVAILABLE).remove(0);
+    /**
+     * Parks like {@link #park(Spot, LocalDateTime)}, but reports a full lot with an empty result instead
+     * of an exception, so rejections stay cheap when gates keep trying a full lot.
+     */
+    public Optional<ParkingTicket> tryPark(Spot spot, LocalDateTime entryDateTime) {
+        return tryPark(spot, NO_GATE, entryDateTime);
+    }
 
-        SPOTS.get(spot).get(OCCUPIED).add(allocatedSpotDetails);
+    /**
+     * Parks a vehicle that came through {@code gate} in the lowest numbered free spot of the zone nearest to
+     * that gate which has one.
+     *
+     * @throws GateNotFoundException if the venue layout has no such gate
+     */
+    public ParkingTicket park(Spot spot, String gate, LocalDateTime entryDateTime) throws ParkingIsFullException {
+        Optional<ParkingTicket> ticket = tryPark(spot, gate, entryDateTime);
+        if (ticket.isEmpty()) {
+            throw new ParkingIsFullException("Parking is Full");
+        }
+        return ticket.get();
+    }
 
-        return new ParkingTicket(allocatedSpotDetails.getSpotNumber(), entryDateTime);
+    /**
+     * Parks like {@link #park(Spot, String, LocalDateTime)}, but reports a full lot with an empty result.
+     */
+    public Optional<ParkingTicket> tryPark(Spot spot, String gate, LocalDateTime entryDateTime) {
+        int gateIndex = layout == null ? NO_GATE : layout.getGateIndex(gate);
+        if (gateIndex == NO_GATE) {
+            throw new GateNotFoundException(format("Gate [%s] is not available in the venue [%s]", gate, getType()));
+        }
+        return tryPark(spot, gateIndex, entryDateTime);
     }
 
-    public synchronized ParkingReceipt unpark(Spot spot, ParkingTicket ticket,
-                                              LocalDateTime exitDateTime) {
+    private Optional<ParkingTicket> tryPark(Spot spot, int gate, LocalDateTime entryDateTime) {
+        VenueMetrics venueMetrics = metrics;
+        long startNanos = venueMetrics == null ? VenueMetrics.NOT_SAMPLED : venueMetrics.startTimer();
+        SpotPool spotPool = getSpotPool(spot);
+        int spotNumber = gate == NO_GATE ? spotPool.claim() : spotPool.claimNearest(gate);
+        if (spotNumber == FreeSpotIndex.NO_SPOT) {
+            if (venueMetrics != null) {
+                venueMetrics.recordRejection(spot, startNanos);
+            }
+            return Optional.empty();
+        }
 
-        SpotDetails spotDetails = new SpotDetails(spot, ticket.getSpotNumber());
+        ParkingTicket ticket = occupy(spotPool, spotNumber, entryDateTime);
+        if (venueMetrics != null) {
+            venueMetrics.recordPark(spot, startNanos);
+        }
+        return Optional.of(ticket);
+    }
 
-        SPOTS.get(spot).get(OCCUPIED).remove(spot);
+    /**
+     * Parks like {@link #park(Spot, LocalDateTime)}, but when the lot is full waits up to {@code timeout} in
+     * a first come, first served line for a spot to be freed. A spot freed while gates wait goes straight to
+     * the first of them, so queue lanes need not retry.
+     *
+     * @throws ParkingIsFullException if no spot was freed in time
+     */
+    public ParkingTicket park(Spot spot, LocalDateTime entryDateTime, Duration timeout)
+            throws ParkingIsFullException, InterruptedException {
+        SpotPool spotPool = getSpotPool(spot);
+        int spotNumber = spotPool.claim(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        // Latency is taken from the moment a spot is had, so waiting in line does not skew the histograms.
+        VenueMetrics venueMetrics = metrics;
+        long startNanos = venueMetrics == null ? VenueMetrics.NOT_SAMPLED : venueMetrics.startTimer();
+        if (spotNumber == FreeSpotIndex.NO_SPOT) {
+            if (venueMetrics != null) {
+                venueMetrics.recordRejection(spot, startNanos);
+            }
+            throw new ParkingIsFullException("Parking is Full");
+        }
 
-        SPOTS.get(spot).get(AVAILABLE).add(spotDetails);
+        ParkingTicket ticket = occupy(spotPool, spotNumber, entryDateTime);
+        if (venueMetrics != null) {
+            venueMetrics.recordPark(spot, startNanos);
+        }
+        return ticket;
+    }
+
+    /**
+     * @return the number of gates waiting in line for a spot of the given type
+     */
+    public int getWaitingGates(Spot spot) {
+        SpotPool spotPool = spots.get(spot);
+        return spotPool == null ? 0 : spotPool.getWaitingCount();
+    }
+
+    /**
+     * Parks a convoy or fleet in one go, e.g. {@code {BUS_OR_TRUCK=40}}. Spots are claimed a bitmap word
+     * at a time and ticket numbers as one block, so per vehicle only the session itself is written.
+     * With {@link BatchMode#ALL_OR_NOTHING} either every vehicle gets a spot or none does; with
+     * {@link BatchMode#BEST_EFFORT} as many as fit are parked, lowest spots first.
+     *
+     * @return the tickets per spot type, in ascending spot order
+     * @throws ParkingIsFullException if an all-or-nothing batch does not fit
+     * @throws IllegalArgumentException if a vehicle count is missing or negative
+     */
+    public Map<Spot, List<ParkingTicket>> parkAll(Map<Spot, Integer> vehicles, LocalDateTime entryDateTime,
+                                                  BatchMode mode) throws ParkingIsFullException {
+        // Nothing is claimed before the whole request is known to be valid.
+        vehicles.forEach((spot, count) -> {
+            getSpotPool(spot);
+            if (count == null || count < 0) {
+                throw new IllegalArgumentException(format("Cannot park [%s] vehicles of [%s]", count, spot));
+            }
+        });
+        Map<Spot, int[]> claims = new EnumMap<>(Spot.class);
+        Map<Spot, Integer> claimed = new EnumMap<>(Spot.class);
+        for (Map.Entry<Spot, Integer> request : vehicles.entrySet()) {
+            SpotPool spotPool = getSpotPool(request.getKey());
+            int[] spotNumbers = new int[request.getValue()];
+            int count = spotPool.claim(spotNumbers, spotNumbers.length, mode == BatchMode.BEST_EFFORT);
+            if (count < spotNumbers.length && mode == BatchMode.ALL_OR_NOTHING) {
+                claims.forEach((spot, taken) -> {
+                    for (int i = 0; i < claimed.get(spot); i++) {
+                        getSpotPool(spot).release(taken[i]);
+                    }
+                });
+                VenueMetrics venueMetrics = metrics;
+                if (venueMetrics != null) {
+                    vehicles.forEach((spot, rejected) -> venueMetrics.recordBatch(spot, 0, rejected, 0));
+                }
+                throw new ParkingIsFullException("Parking is Full");
+            }
+            claims.put(request.getKey(), spotNumbers);
+            claimed.put(request.getKey(), count);
+        }
+
+        LocalDateTime entry = entryDateTime.truncatedTo(ChronoUnit.SECONDS);
+        long entryEpochSecond = entry.toEpochSecond(UTC);
+        Map<Spot, List<ParkingTicket>> tickets = new EnumMap<>(Spot.class);
+        for (Map.Entry<Spot, int[]> claim : claims.entrySet()) {
+            Spot spot = claim.getKey();
+            SpotPool spotPool = getSpotPool(spot);
+            int[] spotNumbers = claim.getValue();
+            int count = claimed.get(spot);
+            long firstTicketNumber = count == 0 ? 0 : ticketSequence.next(count);
+            List<ParkingTicket> spotTickets = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long ticketNumber = firstTicketNumber + i;
+                spotPool.occupy(spotNumbers[i], ticketNumber, entryEpochSecond);
+                if (journal != null) {
+                    try {
+                        journal.appendPark(spot, spotNumbers[i], ticketNumber, entryEpochSecond);
+                    } catch (RuntimeException e) {
+                        // Vehicles already journaled stay parked; their tickets can be reprinted with getTicket.
+                        for (int j = i; j < count; j++) {
+                            spotPool.release(spotNumbers[j]);
+                        }
+                        claims.forEach((later, taken) -> {
+                            if (later.compareTo(spot) > 0) {
+                                for (int j = 0; j < claimed.get(later); j++) {
+                                    getSpotPool(later).release(taken[j]);
+                                }
+                            }
+                        });
+                        throw e;
+                    }
+                }
+                sessions.put(ticketNumber, SessionIndex.session(spot, spotNumbers[i]));
+                spotTickets.add(new ParkingTicket(ticketNumber, spotNumbers[i], entry));
+            }
+            tickets.put(spot, spotTickets);
+            HourlyRollup hourlyRollup = rollup;
+            if (hourlyRollup != null && count > 0) {
+                hourlyRollup.recordOccupancy(spot, entryEpochSecond, spotPool.getOccupiedCount());
+            }
+            VenueMetrics venueMetrics = metrics;
+            if (venueMetrics != null) {
+                venueMetrics.recordBatch(spot, count, spotNumbers.length - count, 0);
+            }
+        }
+        return tickets;
+    }
 
-        long fee = calculateFee(spot, ChronoUnit.HOURS.between(ticket.getEntryDateTime(), exitDateTime) + 1);
+    /**
+     * Ends the sessions of a returning fleet in one go. Fees are computed per spot type in one batch
+     * and receipt numbers are issued as one block. With {@link BatchMode#ALL_OR_NOTHING}
+     * one invalid ticket fails the whole batch before any vehicle leaves; with
+     * {@link BatchMode#BEST_EFFORT} invalid tickets are left out of the result.
+     *
+     * @return the receipt of every ticket that exited, in the order of {@code tickets}
+     * @throws InvalidTicketException if an all-or-nothing batch holds a ticket that is not parked
+     */
+    public Map<ParkingTicket, ParkingReceipt> unparkAll(Collection<ParkingTicket> tickets, LocalDateTime exitDateTime,
+                                                         BatchMode mode) {
+        ParkingTicket[] exiting = new ParkingTicket[tickets.size()];
+        long[] exitingSessions = new long[exiting.length];
+        long[] entryEpochSeconds = new long[exiting.length];
+        int count = 0;
+        for (ParkingTicket ticket : tickets) {
+            long ticketNumber = ticket.getTicketNumber();
+            long entryEpochSecond = ticket.getEntryDateTime().toEpochSecond(UTC);
+            long session = sessions.get(ticketNumber);
+            if (session == SessionIndex.NO_SESSION || SessionIndex.spotNumberOf(session) != ticket.getSpotNumber()
+                    || getSpotPool(SessionIndex.spotOf(session)).getEntryEpochSecond(ticket.getSpotNumber()) != entryEpochSecond
+                    || !sessions.remove(ticketNumber, session)) {
+                if (mode == BatchMode.BEST_EFFORT) {
+                    continue;
+                }
+                for (int i = 0; i < count; i++) {
+                    sessions.put(exiting[i].getTicketNumber(), exitingSessions[i]);
+                }
+                throw session == SessionIndex.NO_SESSION ? notParked(ticketNumber)
+                        : new InvalidTicketException(format("Ticket [%d] does not match its session in the venue [%s]",
+                        ticketNumber, getType()));
+            }
+            exiting[count] = ticket;
+            exitingSessions[count] = session;
+            entryEpochSeconds[count++] = entryEpochSecond;
+        }
 
-        return new ParkingReceipt(ticket.getEntryDateTime(), exitDateTime, fee);
+        long exitEpochSecond = exitDateTime.toEpochSecond(UTC);
+        ParkingReceipt[] receipts = new ParkingReceipt[count];
+        long[] hours = new long[count];
+        long[] fees = new long[count];
+        int[] batch = new int[count];
+        for (Spot spot : spots.keySet()) {
+            int size = 0;
+            for (int i = 0; i < count; i++) {
+                if (SessionIndex.spotOf(exitingSessions[i]) == spot) {
+                    batch[size] = i;
+                    hours[size++] = (exitEpochSecond - entryEpochSeconds[i]) / 3600 + 1;
+                }
+            }
+            if (size == 0) {
+                continue;
+            }
+            calculateFees(spot, hours, fees, size);
+            SpotPool spotPool = getSpotPool(spot);
+            long firstReceiptNumber = receiptSequence.next(size);
+            HourlyRollup hourlyRollup = rollup;
+            for (int j = 0; j < size; j++) {
+                ParkingTicket ticket = exiting[batch[j]];
+                if (journal != null) {
+                    try {
+                        journal.appendUnpark(spot, ticket.getSpotNumber(), firstReceiptNumber + j,
+                                ticket.getTicketNumber(), exitEpochSecond, fees[j]);
+                    } catch (RuntimeException e) {
+                        // Vehicles already journaled have left; every other one is still parked.
+                        for (int i = 0; i < count; i++) {
+                            if (receipts[i] == null) {
+                                sessions.put(exiting[i].getTicketNumber(), exitingSessions[i]);
+                            }
+                        }
+                        throw e;
+                    }
+                }
+                spotPool.release(ticket.getSpotNumber(), ticket.getTicketNumber());
+                if (hourlyRollup != null) {
+                    hourlyRollup.recordExit(spot, exitEpochSecond, exitEpochSecond - entryEpochSeconds[batch[j]], fees[j],
+                            spotPool.getOccupiedCount());
+                }
+                receipts[batch[j]] = new ParkingReceipt(firstReceiptNumber + j, ticket.getEntryDateTime(), exitDateTime,
+                        fees[j]);
+            }
+            VenueMetrics venueMetrics = metrics;
+            if (venueMetrics != null) {
+                venueMetrics.recordBatch(spot, 0, 0, size);
+            }
+        }
+        Map<ParkingTicket, ParkingReceipt> result = new LinkedHashMap<>(count * 4 / 3 + 1);
+        for (int i = 0; i < count; i++) {
+            result.put(exiting[i], receipts[i]);
+        }
+        return result;
     }
 
+    // Sessions keep whole seconds, so tickets do too and every exit path prices the same stay.
+    private ParkingTicket occupy(SpotPool spotPool, int spotNumber, LocalDateTime entryDateTime) {
+        long ticketNumber = ticketSequence.next();
+        LocalDateTime entry = entryDateTime.truncatedTo(ChronoUnit.SECONDS);
+        long entryEpochSecond = entry.toEpochSecond(UTC);
+        spotPool.occupy(spotNumber, ticketNumber, entryEpochSecond);
+        if (journal != null) {
+            try {
+                journal.appendPark(spotPool.getSpot(), spotNumber, ticketNumber, entryEpochSecond);
+            } catch (RuntimeException e) {
+                spotPool.release(spotNumber);
+                throw e;
+            }
+        }
+        sessions.put(ticketNumber, SessionIndex.session(spotPool.getSpot(), spotNumber));
+        HourlyRollup hourlyRollup = rollup;
+        if (hourlyRollup != null) {
+            hourlyRollup.recordOccupancy(spotPool.getSpot(), entryEpochSecond, spotPool.getOccupiedCount());
+        }
+        return new ParkingTicket(ticketNumber, spotNumber, entry);
+    }
+
+    /**
+     * Takes a spot out of the pool for a pre-booked customer until {@code now + hold}. The spot counts as
+     * occupied while held and goes back to the pool if the reservation is cancelled or expires.
+     * Reservations are not journaled.
+     */
+    public Reservation reserve(Spot spot, LocalDateTime now, Duration hold) throws ParkingIsFullException {
+        long nowEpochSecond = now.toEpochSecond(UTC);
+        ReservationBook book = getReservationBook(nowEpochSecond);
+        book.expire(nowEpochSecond, this::releaseReservation);
+        int spotNumber = getSpotPool(spot).reserve();
+        if (spotNumber == FreeSpotIndex.NO_SPOT) {
+            throw new ParkingIsFullException("Parking is Full");
+        }
+        return book.hold(reservationSequence.next(), spot, spotNumber, nowEpochSecond + hold.toSeconds());
+    }
+
+    /**
+     * Parks the booked vehicle in its reserved spot.
+     *
+     * @throws ReservationNotHeldException if the reservation was already claimed, cancelled or has expired
+     */
+    public ParkingTicket claim(Reservation reservation, LocalDateTime entryDateTime) {
+        VenueMetrics venueMetrics = metrics;
+        long startNanos = venueMetrics == null ? VenueMetrics.NOT_SAMPLED : venueMetrics.startTimer();
+        long entryEpochSecond = entryDateTime.toEpochSecond(UTC);
+        ReservationBook book = getReservationBook(entryEpochSecond);
+        book.expire(entryEpochSecond, this::releaseReservation);
+        if (!book.claim(reservation, entryEpochSecond)) {
+            throw new ReservationNotHeldException(format("Reservation [%d] is [%s]",
+                    reservation.getReservationNumber(),
+                    reservation.getState() == ReservationState.HELD ? ReservationState.EXPIRED : reservation.getState()));
+        }
+        ParkingTicket ticket = occupy(getSpotPool(reservation.getSpot()), reservation.getSpotNumber(), entryDateTime);
+        if (venueMetrics != null) {
+            venueMetrics.recordPark(reservation.getSpot(), startNanos);
+        }
+        return ticket;
+    }
+
+    /**
+     * @return {@code true} if the reservation was still held and its spot is free again
+     */
+    public boolean cancel(Reservation reservation) {
+        // Never create a book here: a venue without one cannot own the reservation.
+        ReservationBook book = reservations;
+        if (book == null) {
+            throw new IllegalArgumentException(format("Reservation [%d] belongs to another venue",
+                    reservation.getReservationNumber()));
+        }
+        if (!book.cancel(reservation)) {
+            return false;
+        }
+        releaseReservation(reservation);
+        return true;
+    }
+
+    /**
+     * Frees the spots of every reservation due by {@code now}. Reserving and claiming do this on the way,
+     * so a scheduler only needs to call it for venues that see no bookings for a while.
+     *
+     * @return the number of reservations expired
+     */
+    public int expireReservations(LocalDateTime now) {
+        ReservationBook book = reservations;
+        return book == null ? 0 : book.expire(now.toEpochSecond(UTC), this::releaseReservation);
+    }
+
+    private ReservationBook getReservationBook(long nowEpochSecond) {
+        ReservationBook book = reservations;
+        if (book == null) {
+            synchronized (this) {
+                book = reservations;
+                if (book == null) {
+                    book = new ReservationBook(nowEpochSecond);
+                    reservations = book;
+                }
+            }
+        }
+        return book;
+    }
+
+    private void releaseReservation(Reservation reservation) {
+        getSpotPool(reservation.getSpot()).release(reservation.getSpotNumber(), SpotPool.RESERVED);
+    }
+
+    /**
+     * Ends the session of {@code ticket}, which must be the unaltered ticket of a vehicle still parked.
+     *
+     * @throws InvalidTicketException if the ticket has already exited or does not match its session
+     */
+    public ParkingReceipt unpark(Spot spot, ParkingTicket ticket,
+                                 LocalDateTime exitDateTime) {
+        VenueMetrics venueMetrics = metrics;
+        long startNanos = venueMetrics == null ? VenueMetrics.NOT_SAMPLED : venueMetrics.startTimer();
+        SpotPool spotPool = getSpotPool(spot);
+        long ticketNumber = ticket.getTicketNumber();
+        int spotNumber = ticket.getSpotNumber();
+        if (spotNumber < 1 || spotNumber > spotPool.getProvisioned()
+                || spotPool.getEntryEpochSecond(spotNumber) != ticket.getEntryDateTime().toEpochSecond(UTC)
+                || !sessions.remove(ticketNumber, SessionIndex.session(spot, spotNumber))) {
+            if (sessions.get(ticketNumber) == SessionIndex.NO_SESSION) {
+                throw notParked(ticketNumber);
+            }
+            throw new InvalidTicketException(format("Ticket [%d] does not match its session in the venue [%s]",
+                    ticketNumber, getType()));
+        }
+        return checkout(spotPool, ticketNumber, spotNumber, ticket.getEntryDateTime().truncatedTo(ChronoUnit.SECONDS),
+                exitDateTime, venueMetrics, startNanos);
+    }
+
+    /**
+     * Ends the session of a ticket known only by its number, e.g. read by an exit gate scanner.
+     *
+     * @throws InvalidTicketException if no vehicle with that ticket is parked
+     */
+    public ParkingReceipt unpark(long ticketNumber, LocalDateTime exitDateTime) {
+        VenueMetrics venueMetrics = metrics;
+        long startNanos = venueMetrics == null ? VenueMetrics.NOT_SAMPLED : venueMetrics.startTimer();
+        long session = sessions.remove(ticketNumber);
+        if (session == SessionIndex.NO_SESSION) {
+            throw notParked(ticketNumber);
+        }
+        SpotPool spotPool = getSpotPool(SessionIndex.spotOf(session));
+        int spotNumber = SessionIndex.spotNumberOf(session);
+        LocalDateTime entryDateTime = LocalDateTime.ofEpochSecond(spotPool.getEntryEpochSecond(spotNumber), 0, UTC);
+        return checkout(spotPool, ticketNumber, spotNumber, entryDateTime, exitDateTime, venueMetrics, startNanos);
+    }
+
+    private ParkingReceipt checkout(SpotPool spotPool, long ticketNumber, int spotNumber, LocalDateTime entryDateTime,
+                                    LocalDateTime exitDateTime, VenueMetrics venueMetrics, long startNanos) {
+        Spot spot = spotPool.getSpot();
+        long fee = calculateFee(spot, ChronoUnit.HOURS.between(entryDateTime, exitDateTime) + 1);
+
+        long receiptNumber = receiptSequence.next();
+        long exitEpochSecond = exitDateTime.toEpochSecond(UTC);
+        if (journal != null) {
+            try {
+                journal.appendUnpark(spot, spotNumber, receiptNumber, ticketNumber, exitEpochSecond, fee);
+            } catch (RuntimeException e) {
+                // The spot is only freed once the exit is journaled, so the ticket can be presented again.
+                sessions.put(ticketNumber, SessionIndex.session(spot, spotNumber));
+                throw e;
+            }
+        }
+        spotPool.release(spotNumber, ticketNumber);
+        HourlyRollup hourlyRollup = rollup;
+        if (hourlyRollup != null) {
+            hourlyRollup.recordExit(spot, exitEpochSecond, exitEpochSecond - entryDateTime.toEpochSecond(UTC), fee,
+                    spotPool.getOccupiedCount());
+        }
+        if (venueMetrics != null) {
+            venueMetrics.recordUnpark(spot, startNanos);
+        }
+        return new ParkingReceipt(receiptNumber, entryDateTime, exitDateTime, fee);
+    }
+
+    private InvalidTicketException notParked(long ticketNumber) {
+        return new InvalidTicketException(format("Ticket [%d] is not parked in the venue [%s]", ticketNumber, getType()));
+    }
+
+    /**
+     * Rebuilds the ticket of a parked vehicle from its session, e.g. to reprint a lost ticket.
+     */
+    public Optional<ParkingTicket> getTicket(long ticketNumber) {
+        long session = sessions.get(ticketNumber);
+        if (session == SessionIndex.NO_SESSION) {
+            return Optional.empty();
+        }
+        SpotPool spotPool = getSpotPool(SessionIndex.spotOf(session));
+        int spotNumber = SessionIndex.spotNumberOf(session);
+        long entryEpochSecond = spotPool.getEntryEpochSecond(spotNumber);
+        if (spotPool.getTicketNumber(spotNumber) != ticketNumber) {
+            return Optional.empty();
+        }
+        return Optional.of(new ParkingTicket(ticketNumber, spotNumber, LocalDateTime.ofEpochSecond(entryEpochSecond, 0, UTC)));
+    }
+
+    /**
+     * @return the number of vehicles currently parked
+     */
+    public int getActiveSessions() {
+        return sessions.size();
+    }
 
     protected enum SpotAvailability {
         AVAILABLE,
@@ -0,0 +1,469 @@
+package com.parkinglot.allocation;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free bitmap of free spot numbers {@code 1..capacity}.
+ * <p>
+ * Spots are grouped in chunks of 64 words (4096 spots). Each chunk keeps a summary word whose bits
+ * hint which of its words still have a free spot, so claiming the lowest free spot touches at most
+ * one summary word per chunk and a single bitmap word. Leaf words are authoritative; summary bits
+ * may briefly lag behind them and are repaired by whoever observes the lag.
+ * <p>
+ * The capacity can change while spots are claimed and released. Growing appends chunks to a
+ * copy-on-write directory. Shrinking takes the free spots above the new capacity out of service and
+ * lets the occupied ones drain: such a spot is retired when it is released instead of becoming free.
+ * Spots that were ever in service stay addressable, so a draining spot can always be released.
+ */
+public class FreeSpotIndex {
+
+    public static final int NO_SPOT = 0;
+
+    private static final int WORD_BITS = Long.SIZE;
+    private static final int WORDS_PER_CHUNK = Long.SIZE;
+    private static final int SPOTS_PER_CHUNK = WORD_BITS * WORDS_PER_CHUNK;
+
+    private volatile Chunk[] chunks;
+    private volatile int capacity;
+    private volatile int provisioned;
+    private final AtomicInteger free = new AtomicInteger();
+    private final AtomicInteger retired = new AtomicInteger();
+
+    public FreeSpotIndex(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+        }
+        this.chunks = new Chunk[0];
+        resize(capacity);
+    }
+
+    /**
+     * Claims the lowest free spot number.
+     *
+     * @return the claimed spot number, or {@link #NO_SPOT} when every spot is taken
+     */
+    public int claim() {
+        if (!acquirePermit()) {
+            return NO_SPOT;
+        }
+
+        // A set bit exists for our permit, although its summary hint may still be in flight.
+        while (true) {
+            Chunk[] current = chunks;
+            for (int c = 0; c < current.length; c++) {
+                int spotNumber = current[c].claimLowest();
+                if (spotNumber != NO_SPOT) {
+                    return c * SPOTS_PER_CHUNK + spotNumber;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Claims {@code count} spots at once, lowest first, into {@code spotNumbers}. Permits for the whole
+     * batch are taken with one CAS and free spots are taken a bitmap word at a time, so a batch costs
+     * about one CAS per 64 spots instead of two per spot.
+     *
+     * @param partial whether to settle for fewer spots than {@code count}; otherwise the batch claims
+     *                all or nothing
+     * @return the number of spots claimed
+     */
+    public int claim(int[] spotNumbers, int count, boolean partial) {
+        int granted = acquirePermits(count, partial);
+        int claimed = 0;
+        while (claimed < granted) {
+            Chunk[] current = chunks;
+            for (int c = 0; c < current.length && claimed < granted; c++) {
+                claimed = current[c].claimLowest(spotNumbers, claimed, granted, c * SPOTS_PER_CHUNK);
+            }
+            if (claimed < granted) {
+                Thread.onSpinWait();
+            }
+        }
+        return granted;
+    }
+
+    /**
+     * Claims the lowest free spot number in {@code from..to}, e.g. the nearest spot of a zone. A spot
+     * in the range freed while the range is scanned may be missed.
+     * <p>
+     * The permit is only taken once a bit in the range has been cleared, so probing a full range never
+     * holds a permit that a concurrent {@link #claim()} could have used.
+     *
+     * @return the claimed spot number, or {@link #NO_SPOT} when no free spot was found in the range
+     */
+    public int claim(int from, int to) {
+        if (free.get() == 0) {
+            return NO_SPOT;
+        }
+        Chunk[] current = chunks;
+        int last = Math.min(to, current.length * SPOTS_PER_CHUNK) - 1;
+        for (int index = Math.max(from, 1) - 1; index <= last; index = (index / SPOTS_PER_CHUNK + 1) * SPOTS_PER_CHUNK) {
+            int c = index / SPOTS_PER_CHUNK;
+            int spotNumber = current[c].claimLowest(index % SPOTS_PER_CHUNK,
+                    Math.min(last - c * SPOTS_PER_CHUNK, SPOTS_PER_CHUNK - 1));
+            if (spotNumber == NO_SPOT) {
+                continue;
+            }
+            if (acquirePermit()) {
+                return c * SPOTS_PER_CHUNK + spotNumber;
+            }
+            // Every free spot is promised to a permit holder, who may be waiting for this very bit.
+            current[c].set(spotNumber - 1);
+            return NO_SPOT;
+        }
+        return NO_SPOT;
+    }
+
+    /**
+     * Claims a specific spot, e.g. while rebuilding occupancy from a journal.
+     *
+     * @return {@code false} if the spot was not free
+     */
+    public boolean claim(int spotNumber) {
+        checkSpotNumber(spotNumber);
+        if (!acquirePermit()) {
+            return false;
+        }
+        int index = spotNumber - 1;
+        if (!chunks[index / SPOTS_PER_CHUNK].clear(index % SPOTS_PER_CHUNK)) {
+            free.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Marks a spot as free again, or retires it if it is above the capacity.
+     *
+     * @return {@code false} if the spot was already free
+     */
+    public boolean release(int spotNumber) {
+        checkSpotNumber(spotNumber);
+        int index = spotNumber - 1;
+        Chunk chunk = chunks[index / SPOTS_PER_CHUNK];
+        int bit = index % SPOTS_PER_CHUNK;
+        if (spotNumber > capacity) {
+            if (chunk.isSet(bit) || !chunk.retire(bit)) {
+                return false;
+            }
+            retired.incrementAndGet();
+            // The pool may have grown back over the spot since capacity was read.
+            if (spotNumber <= capacity) {
+                reinstate(spotNumber);
+            }
+            return true;
+        }
+        if (!chunk.set(bit)) {
+            return false;
+        }
+        free.incrementAndGet();
+        // The pool may have shrunk below the spot since capacity was read.
+        if (spotNumber > capacity) {
+            retireIfFree(spotNumber);
+        }
+        return true;
+    }
+
+    /**
+     * Changes the number of spots in service. New spots are free at once; when shrinking, free spots
+     * above {@code newCapacity} leave service now and occupied ones as they are released. Resizes are
+     * serialized with each other but never block claims or releases.
+     */
+    public synchronized void resize(int newCapacity) {
+        if (newCapacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative: " + newCapacity);
+        }
+        int oldCapacity = capacity;
+        if (newCapacity > provisioned) {
+            int chunkCount = (newCapacity + SPOTS_PER_CHUNK - 1) / SPOTS_PER_CHUNK;
+            if (chunkCount > chunks.length) {
+                Chunk[] grown = Arrays.copyOf(chunks, chunkCount);
+                for (int c = chunks.length; c < chunkCount; c++) {
+                    grown[c] = new Chunk();
+                }
+                chunks = grown;
+            }
+        }
+        int oldProvisioned = provisioned;
+        provisioned = Math.max(oldProvisioned, newCapacity);
+        capacity = newCapacity;
+        if (newCapacity > oldCapacity) {
+            for (int spotNumber = oldCapacity + 1; spotNumber <= Math.min(newCapacity, oldProvisioned); spotNumber++) {
+                reinstate(spotNumber);
+            }
+            for (int spotNumber = oldProvisioned + 1; spotNumber <= newCapacity; spotNumber++) {
+                setBit(spotNumber);
+                free.incrementAndGet();
+            }
+        } else {
+            for (int spotNumber = newCapacity + 1; spotNumber <= oldCapacity; spotNumber++) {
+                retireIfFree(spotNumber);
+            }
+        }
+    }
+
+    public boolean isFree(int spotNumber) {
+        checkSpotNumber(spotNumber);
+        int index = spotNumber - 1;
+        return chunks[index / SPOTS_PER_CHUNK].isSet(index % SPOTS_PER_CHUNK);
+    }
+
+    /**
+     * Copies the occupied spots into a bitmap where bit {@code n - 1} stands for spot {@code n}, including
+     * occupied spots still draining above the capacity. Spots claimed or released while copying may or
+     * may not be reflected.
+     */
+    public long[] occupiedBitmap() {
+        Chunk[] current = chunks;
+        int spots = provisioned;
+        long[] bitmap = new long[(spots + WORD_BITS - 1) / WORD_BITS];
+        for (int w = 0; w < bitmap.length; w++) {
+            Chunk chunk = current[w / WORDS_PER_CHUNK];
+            bitmap[w] = ~chunk.words.get(w % WORDS_PER_CHUNK) & ~chunk.retired.get(w % WORDS_PER_CHUNK);
+        }
+        if (spots % WORD_BITS != 0) {
+            bitmap[bitmap.length - 1] &= (1L << spots) - 1;
+        }
+        return bitmap;
+    }
+
+    /**
+     * @return the number of spots in service
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the highest spot number ever in service; spots above the capacity up to it may still be draining
+     */
+    public int getProvisioned() {
+        return provisioned;
+    }
+
+    public int getFreeCount() {
+        return free.get();
+    }
+
+    public int getOccupiedCount() {
+        return provisioned - free.get() - retired.get();
+    }
+
+    // A permit is taken before a bit is cleared and returned after a bit is set, so a permit holder always finds a bit.
+    private boolean acquirePermit() {
+        int available;
+        do {
+            available = free.get();
+            if (available == 0) {
+                return false;
+            }
+        } while (!free.compareAndSet(available, available - 1));
+        return true;
+    }
+
+    private int acquirePermits(int count, boolean partial) {
+        int available;
+        int granted;
+        do {
+            available = free.get();
+            granted = Math.min(available, count);
+            if (granted == 0 || granted < count && !partial) {
+                return 0;
+            }
+        } while (!free.compareAndSet(available, available - granted));
+        return granted;
+    }
+
+    private void retireIfFree(int spotNumber) {
+        if (!claim(spotNumber)) {
+            return;
+        }
+        int index = spotNumber - 1;
+        chunks[index / SPOTS_PER_CHUNK].retire(index % SPOTS_PER_CHUNK);
+        retired.incrementAndGet();
+        if (spotNumber <= capacity) {
+            reinstate(spotNumber);
+        }
+    }
+
+    private void reinstate(int spotNumber) {
+        int index = spotNumber - 1;
+        Chunk chunk = chunks[index / SPOTS_PER_CHUNK];
+        if (!chunk.reinstate(index % SPOTS_PER_CHUNK)) {
+            return;
+        }
+        retired.decrementAndGet();
+        chunk.set(index % SPOTS_PER_CHUNK);
+        free.incrementAndGet();
+        if (spotNumber > capacity) {
+            retireIfFree(spotNumber);
+        }
+    }
+
+    private boolean setBit(int spotNumber) {
+        int index = spotNumber - 1;
+        return chunks[index / SPOTS_PER_CHUNK].set(index % SPOTS_PER_CHUNK);
+    }
+
+    private void checkSpotNumber(int spotNumber) {
+        if (spotNumber < 1 || spotNumber > provisioned) {
+            throw new IllegalArgumentException("Spot number out of range: " + spotNumber);
+        }
+    }
+
+    private static final class Chunk {
+
+        private final AtomicLongArray words = new AtomicLongArray(WORDS_PER_CHUNK);
+        private final AtomicLong summary = new AtomicLong();
+        private final AtomicLongArray retired = new AtomicLongArray(WORDS_PER_CHUNK);
+
+        /**
+         * @return the 1-based spot number within this chunk, or {@link #NO_SPOT}
+         */
+        int claimLowest() {
+            long hints;
+            while ((hints = summary.get()) != 0) {
+                int w = Long.numberOfTrailingZeros(hints);
+                while (true) {
+                    long word = words.get(w);
+                    if (word == 0) {
+                        clearHint(w);
+                        break;
+                    }
+                    long lowest = word & -word;
+                    if (words.compareAndSet(w, word, word & ~lowest)) {
+                        if (word == lowest) {
+                            clearHint(w);
+                        }
+                        return w * WORD_BITS + Long.numberOfTrailingZeros(lowest) + 1;
+                    }
+                }
+            }
+            return NO_SPOT;
+        }
+
+        /**
+         * Claims the lowest free spot between bits {@code fromBit} and {@code toBit}, both inclusive.
+         *
+         * @return the 1-based spot number within this chunk, or {@link #NO_SPOT}
+         */
+        int claimLowest(int fromBit, int toBit) {
+            int fromWord = fromBit / WORD_BITS;
+            int toWord = toBit / WORD_BITS;
+            long hints = summary.get() & (-1L << fromWord) & (-1L >>> (WORD_BITS - 1 - toWord));
+            for (; hints != 0; hints &= hints - 1) {
+                int w = Long.numberOfTrailingZeros(hints);
+                long low = w == fromWord ? -1L << fromBit : -1L;
+                long range = low & (w == toWord ? -1L >>> (WORD_BITS - 1 - toBit % WORD_BITS) : -1L);
+                while (true) {
+                    long word = words.get(w);
+                    if (word == 0) {
+                        clearHint(w);
+                    }
+                    long lowest = word & range & -(word & range);
+                    if (lowest == 0) {
+                        break;
+                    }
+                    if (words.compareAndSet(w, word, word & ~lowest)) {
+                        if (word == lowest) {
+                            clearHint(w);
+                        }
+                        return w * WORD_BITS + Long.numberOfTrailingZeros(lowest) + 1;
+                    }
+                }
+            }
+            return NO_SPOT;
+        }
+
+        /**
+         * Claims up to {@code limit - from} of the lowest free spots, whole words at a time, into
+         * {@code spotNumbers} from index {@code from}.
+         *
+         * @return the index after the last spot number written
+         */
+        int claimLowest(int[] spotNumbers, int from, int limit, int base) {
+            int next = from;
+            long hints;
+            while (next < limit && (hints = summary.get()) != 0) {
+                int w = Long.numberOfTrailingZeros(hints);
+                while (next < limit) {
+                    long word = words.get(w);
+                    if (word == 0) {
+                        clearHint(w);
+                        break;
+                    }
+                    long taken = word;
+                    for (int excess = Long.bitCount(word) - (limit - next); excess > 0; excess--) {
+                        taken &= ~Long.highestOneBit(taken);
+                    }
+                    if (words.compareAndSet(w, word, word & ~taken)) {
+                        if (word == taken) {
+                            clearHint(w);
+                        }
+                        for (long bits = taken; bits != 0; bits &= bits - 1) {
+                            spotNumbers[next++] = base + w * WORD_BITS + Long.numberOfTrailingZeros(bits) + 1;
+                        }
+                    }
+                }
+            }
+            return next;
+        }
+
+        boolean isSet(int bitIndex) {
+            return (words.get(bitIndex / WORD_BITS) & (1L << bitIndex)) != 0;
+        }
+
+        boolean set(int bitIndex) {
+            int w = bitIndex / WORD_BITS;
+            long mask = 1L << bitIndex;
+            long word;
+            do {
+                word = words.get(w);
+                if ((word & mask) != 0) {
+                    return false;
+                }
+            } while (!words.compareAndSet(w, word, word | mask));
+            summary.getAndUpdate(hints -> hints | (1L << w));
+            return true;
+        }
+
+        boolean clear(int bitIndex) {
+            int w = bitIndex / WORD_BITS;
+            long mask = 1L << bitIndex;
+            long word;
+            do {
+                word = words.get(w);
+                if ((word & mask) == 0) {
+                    return false;
+                }
+            } while (!words.compareAndSet(w, word, word & ~mask));
+            if (word == mask) {
+                clearHint(w);
+            }
+            return true;
+        }
+
+        boolean retire(int bitIndex) {
+            long mask = 1L << bitIndex;
+            return (retired.getAndUpdate(bitIndex / WORD_BITS, word -> word | mask) & mask) == 0;
+        }
+
+        boolean reinstate(int bitIndex) {
+            long mask = 1L << bitIndex;
+            return (retired.getAndUpdate(bitIndex / WORD_BITS, word -> word & ~mask) & mask) != 0;
+        }
+
+        private void clearHint(int w) {
+            summary.getAndUpdate(hints -> hints & ~(1L << w));
+            // A release may have refilled the word after we saw it empty; never leave it unhinted.
+            if (words.get(w) != 0) {
+                summary.getAndUpdate(hints -> hints | (1L << w));
+            }
+        }
+    }
+}
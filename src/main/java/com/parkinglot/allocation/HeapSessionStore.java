@@ -0,0 +1,42 @@
+package com.parkinglot.allocation;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link SessionStore} in two on-heap primitive arrays.
+ */
+class HeapSessionStore implements SessionStore {
+
+    private final AtomicLongArray ticketNumbers;
+    private final AtomicLongArray entryEpochSeconds;
+
+    HeapSessionStore(int capacity) {
+        this.ticketNumbers = new AtomicLongArray(capacity);
+        this.entryEpochSeconds = new AtomicLongArray(capacity);
+    }
+
+    @Override
+    public long getTicketNumber(int index) {
+        return ticketNumbers.get(index);
+    }
+
+    @Override
+    public void setTicketNumber(int index, long ticketNumber) {
+        ticketNumbers.set(index, ticketNumber);
+    }
+
+    @Override
+    public boolean compareAndSetTicketNumber(int index, long expected, long ticketNumber) {
+        return ticketNumbers.compareAndSet(index, expected, ticketNumber);
+    }
+
+    @Override
+    public long getEntryEpochSecond(int index) {
+        return entryEpochSeconds.get(index);
+    }
+
+    @Override
+    public void setEntryEpochSecond(int index, long entryEpochSecond) {
+        entryEpochSeconds.set(index, entryEpochSecond);
+    }
+}
@@ -0,0 +1,60 @@
+package com.parkinglot.allocation;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free 64-bit sequence for ticket and receipt numbers.
+ * <p>
+ * With a block size above one, each gate thread leases a block of numbers at a time and hands them
+ * out without touching shared state, at the price of numbers no longer being issued in global
+ * order. Numbers of a block that is never used up are skipped, never reissued.
+ */
+public class NumberSequence {
+
+    private final AtomicLong highWaterMark = new AtomicLong();
+    private volatile int blockSize = 1;
+    private final ThreadLocal<long[]> leases = ThreadLocal.withInitial(() -> new long[2]);
+
+    public long next() {
+        int size = blockSize;
+        if (size == 1) {
+            return highWaterMark.incrementAndGet();
+        }
+        long[] lease = leases.get();
+        if (lease[0] == lease[1]) {
+            lease[1] = highWaterMark.addAndGet(size);
+            lease[0] = lease[1] - size;
+        }
+        return ++lease[0];
+    }
+
+    /**
+     * Issues {@code count} consecutive numbers at once, bypassing any leased block.
+     *
+     * @return the first of the numbers
+     */
+    public long next(int count) {
+        return highWaterMark.addAndGet(count) - count + 1;
+    }
+
+    /**
+     * @return the highest number issued or leased so far
+     */
+    public long current() {
+        return highWaterMark.get();
+    }
+
+    /**
+     * Makes sure no number up to {@code number} is issued again, e.g. after recovering it from disk.
+     */
+    public void advanceTo(long number) {
+        highWaterMark.accumulateAndGet(number, Math::max);
+    }
+
+    public void setBlockSize(int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        this.blockSize = blockSize;
+    }
+}
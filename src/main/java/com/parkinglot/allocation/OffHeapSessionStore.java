@@ -0,0 +1,60 @@
+package com.parkinglot.allocation;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static java.lang.String.format;
+
+/**
+ * {@link SessionStore} in direct memory, for lots that keep hundreds of thousands of cars for weeks.
+ * The collector sees one buffer per pool however many sessions it holds. Layout: the ticket number
+ * column followed by the entry time column, eight bytes per spot each.
+ */
+class OffHeapSessionStore implements SessionStore {
+
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    /**
+     * Largest capacity whose two columns still fit in one buffer.
+     */
+    static final int MAX_CAPACITY = Integer.MAX_VALUE / (2 * Long.BYTES);
+
+    private final ByteBuffer columns;
+    private final int entryColumn;
+
+    OffHeapSessionStore(int capacity) {
+        if (capacity < 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException(format("Off-heap sessions hold at most [%d] spots, not [%d]",
+                    MAX_CAPACITY, capacity));
+        }
+        this.columns = ByteBuffer.allocateDirect(capacity * 2 * Long.BYTES);
+        this.entryColumn = capacity * Long.BYTES;
+    }
+
+    @Override
+    public long getTicketNumber(int index) {
+        return (long) LONG.getVolatile(columns, index * Long.BYTES);
+    }
+
+    @Override
+    public void setTicketNumber(int index, long ticketNumber) {
+        LONG.setVolatile(columns, index * Long.BYTES, ticketNumber);
+    }
+
+    @Override
+    public boolean compareAndSetTicketNumber(int index, long expected, long ticketNumber) {
+        return LONG.compareAndSet(columns, index * Long.BYTES, expected, ticketNumber);
+    }
+
+    @Override
+    public long getEntryEpochSecond(int index) {
+        return (long) LONG.getVolatile(columns, entryColumn + index * Long.BYTES);
+    }
+
+    @Override
+    public void setEntryEpochSecond(int index, long entryEpochSecond) {
+        LONG.setVolatile(columns, entryColumn + index * Long.BYTES, entryEpochSecond);
+    }
+}
@@ -0,0 +1,235 @@
+package com.parkinglot.allocation;
+
+import com.parkinglot.enums.Spot;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Active sessions of one venue keyed by ticket number.
+ * <p>
+ * A session is packed into a {@code long} holding the spot type and spot number; its entry time stays
+ * in the {@link SpotPool}. Keys and sessions live in primitive open-addressing tables with linear
+ * probing and backward-shift deletion, so there are no boxed keys, no tombstones and no per-entry
+ * objects: an active session costs 16 bytes per slot at a load factor of at most three quarters.
+ * The index is split into stripes, each guarded by its own spin lock, so gates rarely meet on a lock.
+ */
+public class SessionIndex {
+
+    public static final long NO_SESSION = -1;
+
+    private static final int STRIPES = 16;
+    private static final int STRIPE_SHIFT = Long.SIZE - Integer.numberOfTrailingZeros(STRIPES);
+    private static final int INITIAL_SLOTS = 16;
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+    private static final Spot[] SPOTS = Spot.values();
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public SessionIndex() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    public static long session(Spot spot, int spotNumber) {
+        return (long) spot.ordinal() << Integer.SIZE | spotNumber;
+    }
+
+    public static Spot spotOf(long session) {
+        return SPOTS[(int) (session >>> Integer.SIZE)];
+    }
+
+    public static int spotNumberOf(long session) {
+        return (int) session;
+    }
+
+    /**
+     * @param ticketNumber a positive ticket number
+     */
+    public void put(long ticketNumber, long session) {
+        long hash = hash(ticketNumber);
+        stripes[(int) (hash >>> STRIPE_SHIFT)].put(ticketNumber, (int) (hash >>> Integer.SIZE), session);
+    }
+
+    /**
+     * @return the session of the ticket, or {@link #NO_SESSION}
+     */
+    public long get(long ticketNumber) {
+        long hash = hash(ticketNumber);
+        return stripes[(int) (hash >>> STRIPE_SHIFT)].get(ticketNumber, (int) (hash >>> Integer.SIZE));
+    }
+
+    /**
+     * Ends the session of a ticket. Of several threads removing the same ticket only one gets the session.
+     *
+     * @return the removed session, or {@link #NO_SESSION} if the ticket had none
+     */
+    public long remove(long ticketNumber) {
+        long hash = hash(ticketNumber);
+        return stripes[(int) (hash >>> STRIPE_SHIFT)].remove(ticketNumber, (int) (hash >>> Integer.SIZE), NO_SESSION);
+    }
+
+    /**
+     * Ends the session of a ticket only if it is still {@code session}.
+     */
+    public boolean remove(long ticketNumber, long session) {
+        long hash = hash(ticketNumber);
+        return stripes[(int) (hash >>> STRIPE_SHIFT)].remove(ticketNumber, (int) (hash >>> Integer.SIZE), session)
+                != NO_SESSION;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private static long hash(long ticketNumber) {
+        return ticketNumber * GOLDEN_RATIO;
+    }
+
+    private static final class Stripe {
+
+        private static final VarHandle LOCKED;
+
+        static {
+            try {
+                LOCKED = MethodHandles.lookup().findVarHandle(Stripe.class, "locked", int.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        // Allocated on first use, so the many venues of a registry that never park cost next to nothing.
+        private long[] keys;
+        private long[] sessions;
+        private int size;
+        private volatile int locked;
+
+        // Critical sections are a handful of array probes, far shorter than parking a thread on a monitor.
+        private void lock() {
+            while (!LOCKED.weakCompareAndSetAcquire(this, 0, 1)) {
+                Thread.onSpinWait();
+            }
+        }
+
+        private void unlock() {
+            LOCKED.setRelease(this, 0);
+        }
+
+        void put(long key, int hash, long session) {
+            lock();
+            try {
+                putLocked(key, hash, session);
+            } finally {
+                unlock();
+            }
+        }
+
+        long get(long key, int hash) {
+            lock();
+            try {
+                int slot = find(key, hash);
+                return slot < 0 ? NO_SESSION : sessions[slot];
+            } finally {
+                unlock();
+            }
+        }
+
+        /**
+         * Removes {@code key} if its session is {@code expected}, or whatever it is if {@code expected} is
+         * {@link #NO_SESSION}.
+         */
+        long remove(long key, int hash, long expected) {
+            lock();
+            try {
+                return removeLocked(key, hash, expected);
+            } finally {
+                unlock();
+            }
+        }
+
+        int size() {
+            lock();
+            try {
+                return size;
+            } finally {
+                unlock();
+            }
+        }
+
+        private void putLocked(long key, int hash, long session) {
+            if (keys == null) {
+                keys = new long[INITIAL_SLOTS];
+                sessions = new long[INITIAL_SLOTS];
+            } else if ((size + 1) * 4L > keys.length * 3L) {
+                grow();
+            }
+            int mask = keys.length - 1;
+            int slot = hash & mask;
+            while (keys[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == 0) {
+                size++;
+            }
+            keys[slot] = key;
+            sessions[slot] = session;
+        }
+
+        private long removeLocked(long key, int hash, long expected) {
+            int slot = find(key, hash);
+            if (slot < 0 || (expected != NO_SESSION && sessions[slot] != expected)) {
+                return NO_SESSION;
+            }
+            long session = sessions[slot];
+            int mask = keys.length - 1;
+            int hole = slot;
+            for (int next = (hole + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+                int home = (int) (hash(keys[next]) >>> Integer.SIZE) & mask;
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    keys[hole] = keys[next];
+                    sessions[hole] = sessions[next];
+                    hole = next;
+                }
+            }
+            keys[hole] = 0;
+            size--;
+            return session;
+        }
+
+        private int find(long key, int hash) {
+            if (keys == null) {
+                return -1;
+            }
+            int mask = keys.length - 1;
+            for (int slot = hash & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldSessions = sessions;
+            keys = new long[oldKeys.length * 2];
+            sessions = new long[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int slot = (int) (hash(oldKeys[i]) >>> Integer.SIZE) & mask;
+                    while (keys[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    sessions[slot] = oldSessions[i];
+                }
+            }
+        }
+    }
+}
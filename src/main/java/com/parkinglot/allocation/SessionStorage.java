@@ -0,0 +1,21 @@
+package com.parkinglot.allocation;
+
+/**
+ * Where a venue keeps the ticket number and entry time of its parked vehicles.
+ */
+public enum SessionStorage {
+    HEAP {
+        @Override
+        SessionStore create(int capacity) {
+            return new HeapSessionStore(capacity);
+        }
+    },
+    OFF_HEAP {
+        @Override
+        SessionStore create(int capacity) {
+            return new OffHeapSessionStore(capacity);
+        }
+    };
+
+    abstract SessionStore create(int capacity);
+}
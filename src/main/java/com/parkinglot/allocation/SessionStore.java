@@ -0,0 +1,18 @@
+package com.parkinglot.allocation;
+
+/**
+ * Session columns of one {@link SpotPool}: the ticket number and entry time of every spot, indexed
+ * from {@code 0}. All accesses are atomic with volatile semantics.
+ */
+public interface SessionStore {
+
+    long getTicketNumber(int index);
+
+    void setTicketNumber(int index, long ticketNumber);
+
+    boolean compareAndSetTicketNumber(int index, long expected, long ticketNumber);
+
+    long getEntryEpochSecond(int index);
+
+    void setEntryEpochSecond(int index, long entryEpochSecond);
+}
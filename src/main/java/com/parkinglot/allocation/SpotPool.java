@@ -0,0 +1,330 @@
+package com.parkinglot.allocation;
+
+import com.parkinglot.enums.Spot;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+
+/**
+ * Spot inventory of a single {@link Spot} type inside one venue.
+ * <p>
+ * Claim and release are lock-free and go through a {@link FreeSpotIndex}, so gates parking
+ * different vehicle classes never contend and idle spots cost a single bit each. The ticket number
+ * and entry time of every occupied spot are kept in a {@link SessionStore} indexed by spot number.
+ * <p>
+ * The pool can be resized while gates run. Session columns never move: spots beyond the initial
+ * capacity live in extension stores of 4096, 8192, 16384... spots, so a writer can never update a
+ * column that a resize is copying away.
+ * <p>
+ * Gates that {@linkplain #claim(long, TimeUnit) wait} for a spot queue up in a {@link Waitlist}; while
+ * anyone waits, released spots are handed over in arrival order instead of going back to the pool.
+ * <p>
+ * A pool laid out in zones also tracks free spots per {@link ZoneIndex zone} and can hand a gate the
+ * nearest free spot in its order of preference. Zoned pools have a fixed capacity.
+ */
+public class SpotPool {
+
+    /**
+     * Ticket number of a spot taken out of the pool for a reservation.
+     */
+    public static final long RESERVED = -1;
+
+    private static final int EXTENSION_SHIFT = 12;
+
+    private final Spot spot;
+    private final FreeSpotIndex freeSpots;
+    private final SessionStorage storage;
+    private final SessionStore sessions;
+    private final Waitlist waitlist = new Waitlist();
+    private final int baseCapacity;
+    private final ZoneIndex zones;
+    private volatile SessionStore[] extensions = new SessionStore[0];
+
+    public SpotPool(Spot spot, int capacity) {
+        this(spot, capacity, SessionStorage.HEAP);
+    }
+
+    public SpotPool(Spot spot, int capacity, SessionStorage storage) {
+        this(spot, capacity, storage, null);
+    }
+
+    /**
+     * Creates a pool of all the spots of {@code zones}.
+     */
+    public SpotPool(Spot spot, ZoneIndex zones, SessionStorage storage) {
+        this(spot, zones.getCapacity(), storage, zones);
+    }
+
+    private SpotPool(Spot spot, int capacity, SessionStorage storage, ZoneIndex zones) {
+        this.spot = spot;
+        this.zones = zones;
+        this.freeSpots = new FreeSpotIndex(capacity);
+        this.storage = storage;
+        this.sessions = storage.create(capacity);
+        this.baseCapacity = capacity;
+    }
+
+    /**
+     * Claims the lowest numbered free spot.
+     *
+     * @return the claimed spot number, or {@link FreeSpotIndex#NO_SPOT} when the pool is exhausted
+     */
+    public int claim() {
+        return claimed(freeSpots.claim());
+    }
+
+    /**
+     * Claims the lowest numbered free spot of the first zone in {@code gate}'s order that has one. Falls
+     * back to the lowest numbered spot anywhere if the zones were all found full while spots were freed.
+     *
+     * @return the claimed spot number, or {@link FreeSpotIndex#NO_SPOT} when the pool is exhausted
+     * @throws IllegalStateException if the pool is not laid out in zones
+     */
+    public int claimNearest(int gate) {
+        if (zones == null) {
+            throw new IllegalStateException(format("Spot [%s] has no zones", spot));
+        }
+        int spotNumber = zones.claim(gate, freeSpots);
+        return spotNumber != FreeSpotIndex.NO_SPOT ? spotNumber : claim();
+    }
+
+    /**
+     * @see FreeSpotIndex#claim(int[], int, boolean)
+     */
+    public int claim(int[] spotNumbers, int count, boolean partial) {
+        int claimed = freeSpots.claim(spotNumbers, count, partial);
+        if (zones != null) {
+            for (int i = 0; i < claimed; i++) {
+                zones.claimed(spotNumbers[i]);
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * Claims the lowest numbered free spot, or waits up to {@code timeout} for a released one. Waiting
+     * gates are served first come, first served.
+     *
+     * @return the claimed spot number, or {@link FreeSpotIndex#NO_SPOT} if none was freed in time
+     */
+    public int claim(long timeout, TimeUnit unit) throws InterruptedException {
+        int spotNumber = claim();
+        if (spotNumber != FreeSpotIndex.NO_SPOT || timeout <= 0) {
+            return spotNumber;
+        }
+        long deadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+        Waitlist.Waiter waiter = waitlist.join();
+        spotNumber = claim();
+        if (spotNumber != FreeSpotIndex.NO_SPOT) {
+            if (waitlist.cancel(waiter)) {
+                return spotNumber;
+            }
+            // A spot was handed over as well; pass the extra one on.
+            free(spotNumber);
+            return waiter.getSpotNumber();
+        }
+        return waitlist.await(waiter, deadlineNanos);
+    }
+
+    /**
+     * Claims a specific spot.
+     *
+     * @return {@code false} if the spot was not free
+     */
+    public boolean claim(int spotNumber) {
+        if (!freeSpots.claim(spotNumber)) {
+            return false;
+        }
+        claimed(spotNumber);
+        return true;
+    }
+
+    /**
+     * Claims the lowest numbered free spot and marks it {@link #RESERVED}. A reserved spot goes back to
+     * the pool with {@code release(spotNumber, RESERVED)}.
+     *
+     * @return the reserved spot number, or {@link FreeSpotIndex#NO_SPOT} when the pool is exhausted
+     */
+    public int reserve() {
+        int spotNumber = claim();
+        if (spotNumber != FreeSpotIndex.NO_SPOT) {
+            store(spotNumber - 1).setTicketNumber(offset(spotNumber - 1), RESERVED);
+        }
+        return spotNumber;
+    }
+
+    /**
+     * Records the session holding a claimed spot.
+     */
+    public void occupy(int spotNumber, long ticketNumber, long entryEpochSecond) {
+        SessionStore store = store(spotNumber - 1);
+        store.setEntryEpochSecond(offset(spotNumber - 1), entryEpochSecond);
+        store.setTicketNumber(offset(spotNumber - 1), ticketNumber);
+    }
+
+    /**
+     * Returns a spot to the pool. A spot that is not currently occupied is ignored, so a repeated
+     * release can never hand the same spot out twice.
+     *
+     * @return {@code true} if the spot was occupied and is now free again, or out of service if the pool shrank below it
+     */
+    public boolean release(int spotNumber) {
+        store(spotNumber - 1).setTicketNumber(offset(spotNumber - 1), 0);
+        return free(spotNumber);
+    }
+
+    /**
+     * Returns a spot to the pool only if it is still held by {@code ticketNumber}.
+     */
+    public boolean release(int spotNumber, long ticketNumber) {
+        if (!store(spotNumber - 1).compareAndSetTicketNumber(offset(spotNumber - 1), ticketNumber, 0)) {
+            return false;
+        }
+        return free(spotNumber);
+    }
+
+    /**
+     * @return the ticket holding the spot, {@link #RESERVED} if the spot is held for a reservation, or
+     * {@code 0} if the spot is free or still being claimed
+     */
+    public long getTicketNumber(int spotNumber) {
+        return store(spotNumber - 1).getTicketNumber(offset(spotNumber - 1));
+    }
+
+    public boolean isFree(int spotNumber) {
+        return freeSpots.isFree(spotNumber);
+    }
+
+    public long getEntryEpochSecond(int spotNumber) {
+        return store(spotNumber - 1).getEntryEpochSecond(offset(spotNumber - 1));
+    }
+
+    /**
+     * Changes the number of spots in service while gates keep parking.
+     *
+     * @see FreeSpotIndex#resize(int)
+     */
+    public synchronized void resize(int newCapacity) {
+        if (zones != null && newCapacity != freeSpots.getCapacity()) {
+            throw new IllegalStateException(format("Spot [%s] is laid out in zones and cannot be resized", spot));
+        }
+        int extended = newCapacity - baseCapacity;
+        if (extended > 0) {
+            int blocks = extensionOf(extended - 1) + 1;
+            if (blocks > extensions.length) {
+                SessionStore[] grown = Arrays.copyOf(extensions, blocks);
+                for (int block = extensions.length; block < blocks; block++) {
+                    grown[block] = storage.create(1 << (block + EXTENSION_SHIFT));
+                }
+                extensions = grown;
+            }
+        }
+        freeSpots.resize(newCapacity);
+        feedWaiters();
+    }
+
+    /**
+     * @see FreeSpotIndex#occupiedBitmap()
+     */
+    public long[] occupiedBitmap() {
+        return freeSpots.occupiedBitmap();
+    }
+
+    public Spot getSpot() {
+        return spot;
+    }
+
+    public int getCapacity() {
+        return freeSpots.getCapacity();
+    }
+
+    /**
+     * @see FreeSpotIndex#getProvisioned()
+     */
+    public int getProvisioned() {
+        return freeSpots.getProvisioned();
+    }
+
+    /**
+     * @return the number of gates waiting for a spot
+     */
+    public int getWaitingCount() {
+        return waitlist.size();
+    }
+
+    public int getFreeCount() {
+        return freeSpots.getFreeCount();
+    }
+
+    public int getOccupiedCount() {
+        return freeSpots.getOccupiedCount();
+    }
+
+    /**
+     * @return the zones of the pool, or {@code null} if it is not laid out in zones
+     */
+    public ZoneIndex getZones() {
+        return zones;
+    }
+
+    private boolean free(int spotNumber) {
+        if (waitlist.hasWaiters() && spotNumber <= freeSpots.getCapacity() && waitlist.handOff(spotNumber)) {
+            return true;
+        }
+        if (!freeSpots.release(spotNumber)) {
+            return false;
+        }
+        released(spotNumber);
+        // A gate may have joined the list after the check above, after its own last look at the pool.
+        feedWaiters();
+        return true;
+    }
+
+    private void feedWaiters() {
+        while (waitlist.hasWaiters()) {
+            int spotNumber = claim();
+            if (spotNumber == FreeSpotIndex.NO_SPOT) {
+                return;
+            }
+            if (!waitlist.handOff(spotNumber) && freeSpots.release(spotNumber)) {
+                released(spotNumber);
+            }
+        }
+    }
+
+    private int claimed(int spotNumber) {
+        if (zones != null && spotNumber != FreeSpotIndex.NO_SPOT) {
+            zones.claimed(spotNumber);
+        }
+        return spotNumber;
+    }
+
+    private void released(int spotNumber) {
+        if (zones != null) {
+            zones.released(spotNumber);
+        }
+    }
+
+    private SessionStore store(int index) {
+        return index < baseCapacity ? sessions : extensions[extensionOf(index - baseCapacity)];
+    }
+
+    private int offset(int index) {
+        if (index < baseCapacity) {
+            return index;
+        }
+        int extended = index - baseCapacity;
+        return extended - extensionStart(extensionOf(extended));
+    }
+
+    // Extension k holds 4096 << k spots and starts at extended index (2^k - 1) * 4096.
+    private static int extensionOf(int extended) {
+        return 31 - Integer.numberOfLeadingZeros((extended >>> EXTENSION_SHIFT) + 1);
+    }
+
+    private static int extensionStart(int block) {
+        return ((1 << block) - 1) << EXTENSION_SHIFT;
+    }
+}
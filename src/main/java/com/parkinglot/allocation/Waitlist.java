@@ -0,0 +1,132 @@
+package com.parkinglot.allocation;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * FIFO of gates waiting for a spot of one type. A freed spot is handed to the oldest waiter directly,
+ * so it never passes through the free pool where a later arrival could take it. Waiters give up with a
+ * single CAS on their own node and then unlink it, so gates timing out in a full lot leave nothing behind.
+ */
+final class Waitlist {
+
+    private static final int CANCELLED = -1;
+
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    /**
+     * @return {@code true} if a waiter may be queued; cheap enough for every release
+     */
+    boolean hasWaiters() {
+        return waiting.get() > 0;
+    }
+
+    /**
+     * Joins the tail of the list. The caller must try the free pool once more afterwards: a spot freed
+     * just before it joined went to the pool, not to it.
+     */
+    Waiter join() {
+        Waiter waiter = new Waiter(Thread.currentThread());
+        waiting.incrementAndGet();
+        waiters.add(waiter);
+        return waiter;
+    }
+
+    /**
+     * Gives {@code spotNumber}, which the caller has claimed, to the oldest waiter still waiting.
+     *
+     * @return {@code false} if nobody was waiting and the caller still holds the spot
+     */
+    boolean handOff(int spotNumber) {
+        Waiter waiter;
+        while ((waiter = waiters.poll()) != null) {
+            if (waiter.fill(spotNumber)) {
+                waiting.decrementAndGet();
+                LockSupport.unpark(waiter.thread);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Waits until a spot is handed to {@code waiter}, the deadline passes or the thread is interrupted.
+     *
+     * @return the spot handed over, or {@link FreeSpotIndex#NO_SPOT} if the waiter gave up first
+     */
+    int await(Waiter waiter, long deadlineNanos) throws InterruptedException {
+        while (true) {
+            int spotNumber = waiter.spotNumber;
+            if (spotNumber > 0) {
+                return spotNumber;
+            }
+            boolean interrupted = Thread.interrupted();
+            if (interrupted || deadlineNanos - System.nanoTime() <= 0) {
+                if (cancel(waiter)) {
+                    if (interrupted) {
+                        throw new InterruptedException();
+                    }
+                    return FreeSpotIndex.NO_SPOT;
+                }
+                // Filled while giving up: keep the spot and the interrupt.
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+                return waiter.spotNumber;
+            }
+            LockSupport.parkNanos(this, deadlineNanos - System.nanoTime());
+        }
+    }
+
+    /**
+     * @return {@code false} if a spot was handed to the waiter before it could give up
+     */
+    boolean cancel(Waiter waiter) {
+        if (!waiter.cancel()) {
+            return false;
+        }
+        waiting.decrementAndGet();
+        waiters.remove(waiter);
+        return true;
+    }
+
+    int size() {
+        return waiting.get();
+    }
+
+    /**
+     * @return the number of queued nodes, including given-up ones not unlinked yet; walks the queue
+     */
+    int queueLength() {
+        return waiters.size();
+    }
+
+    static final class Waiter {
+
+        private static final AtomicIntegerFieldUpdater<Waiter> SPOT_NUMBER =
+                AtomicIntegerFieldUpdater.newUpdater(Waiter.class, "spotNumber");
+
+        private final Thread thread;
+        private volatile int spotNumber;
+
+        private Waiter(Thread thread) {
+            this.thread = thread;
+        }
+
+        int getSpotNumber() {
+            return spotNumber;
+        }
+
+        private boolean fill(int spotNumber) {
+            return SPOT_NUMBER.compareAndSet(this, FreeSpotIndex.NO_SPOT, spotNumber);
+        }
+
+        private boolean cancel() {
+            return SPOT_NUMBER.compareAndSet(this, FreeSpotIndex.NO_SPOT, CANCELLED);
+        }
+    }
+}
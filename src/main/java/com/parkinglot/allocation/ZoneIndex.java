@@ -0,0 +1,177 @@
+package com.parkinglot.allocation;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static java.lang.String.format;
+
+/**
+ * Splits the spots of a {@link SpotPool} into zones of consecutive spot numbers and keeps, per zone, a
+ * free spot counter and, per gate, which zones are worth trying in that gate's order of preference.
+ * <p>
+ * Every gate has a bitmap over the positions of its preference list with a bit set for each zone that
+ * may have a free spot, so the nearest candidate zone is a trailing-zero count away whatever the number
+ * of gates. Like the chunk summaries of {@link FreeSpotIndex}, these bits are hints kept up to date by
+ * the free counters: a zone going from full to free sets its bit in every gate, one found full clears
+ * them. Only these transitions touch every gate; claims and releases in between cost one atomic add.
+ */
+public class ZoneIndex {
+
+    private static final int WORD_BITS = Long.SIZE;
+
+    private final int[] firstSpotNumbers;
+    private final int[] sizes;
+    private final AtomicIntegerArray free;
+    private final int[][] preferences;
+    private final int[][] ranks;
+    private final AtomicLongArray[] hints;
+
+    /**
+     * @param sizes       number of spots per zone; zone {@code z} covers the {@code sizes[z]} spots that
+     *                    follow those of zone {@code z - 1}
+     * @param preferences per gate, every zone index once, nearest first
+     */
+    public ZoneIndex(int[] sizes, int[][] preferences) {
+        this.sizes = sizes.clone();
+        this.firstSpotNumbers = new int[sizes.length];
+        this.free = new AtomicIntegerArray(sizes.length);
+        int spotNumber = 1;
+        for (int zone = 0; zone < sizes.length; zone++) {
+            if (sizes[zone] <= 0) {
+                throw new IllegalArgumentException(format("Zone [%d] must have spots, not [%d]", zone, sizes[zone]));
+            }
+            firstSpotNumbers[zone] = spotNumber;
+            spotNumber += sizes[zone];
+            free.set(zone, sizes[zone]);
+        }
+        this.preferences = new int[preferences.length][];
+        this.ranks = new int[preferences.length][];
+        this.hints = new AtomicLongArray[preferences.length];
+        for (int gate = 0; gate < preferences.length; gate++) {
+            int[] order = preferences[gate];
+            int[] rank = new int[sizes.length];
+            Arrays.fill(rank, -1);
+            if (order.length != sizes.length) {
+                throw new IllegalArgumentException(format("Gate [%d] must rank all [%d] zones", gate, sizes.length));
+            }
+            AtomicLongArray gateHints = new AtomicLongArray((sizes.length + WORD_BITS - 1) / WORD_BITS);
+            for (int position = 0; position < order.length; position++) {
+                if (order[position] < 0 || order[position] >= sizes.length || rank[order[position]] != -1) {
+                    throw new IllegalArgumentException(format("Gate [%d] ranks zone [%d] twice or not at all",
+                            gate, order[position]));
+                }
+                rank[order[position]] = position;
+                gateHints.getAndAccumulate(position / WORD_BITS, 1L << position, (word, bit) -> word | bit);
+            }
+            this.preferences[gate] = order.clone();
+            this.ranks[gate] = rank;
+            this.hints[gate] = gateHints;
+        }
+    }
+
+    /**
+     * @return the zone holding the spot, or {@code -1} if the spot lies beyond the last zone
+     */
+    public int zoneOf(int spotNumber) {
+        int zone = Arrays.binarySearch(firstSpotNumbers, spotNumber);
+        if (zone < 0) {
+            zone = -zone - 2;
+        }
+        return zone < 0 || spotNumber >= firstSpotNumbers[zone] + sizes[zone] ? -1 : zone;
+    }
+
+    public int getZoneCount() {
+        return sizes.length;
+    }
+
+    public int getGateCount() {
+        return preferences.length;
+    }
+
+    /**
+     * @return the number of spots in all zones
+     */
+    public int getCapacity() {
+        int last = sizes.length - 1;
+        return last < 0 ? 0 : firstSpotNumbers[last] + sizes[last] - 1;
+    }
+
+    public int getFirstSpotNumber(int zone) {
+        return firstSpotNumbers[zone];
+    }
+
+    public int getLastSpotNumber(int zone) {
+        return firstSpotNumbers[zone] + sizes[zone] - 1;
+    }
+
+    public int getFreeCount(int zone) {
+        return Math.max(0, free.get(zone));
+    }
+
+    public int getOccupiedCount(int zone) {
+        return sizes[zone] - getFreeCount(zone);
+    }
+
+    /**
+     * Tries the zones that may have a free spot in {@code gate}'s order, each at most once.
+     *
+     * @return the claimed spot number, or {@link FreeSpotIndex#NO_SPOT} if every candidate zone was full
+     */
+    int claim(int gate, FreeSpotIndex freeSpots) {
+        AtomicLongArray gateHints = hints[gate];
+        int[] order = preferences[gate];
+        for (int w = 0; w < gateHints.length(); w++) {
+            for (long candidates = gateHints.get(w); candidates != 0; candidates &= candidates - 1) {
+                int zone = order[w * WORD_BITS + Long.numberOfTrailingZeros(candidates)];
+                int spotNumber = freeSpots.claim(firstSpotNumbers[zone], getLastSpotNumber(zone));
+                if (spotNumber != FreeSpotIndex.NO_SPOT) {
+                    claimed(spotNumber);
+                    return spotNumber;
+                }
+                if (free.get(zone) <= 0) {
+                    clearHints(zone);
+                }
+            }
+        }
+        return FreeSpotIndex.NO_SPOT;
+    }
+
+    /**
+     * Accounts for a spot taken out of the free index.
+     */
+    void claimed(int spotNumber) {
+        int zone = zoneOf(spotNumber);
+        if (zone >= 0 && free.decrementAndGet(zone) <= 0) {
+            clearHints(zone);
+        }
+    }
+
+    /**
+     * Accounts for a spot put back into the free index.
+     */
+    void released(int spotNumber) {
+        int zone = zoneOf(spotNumber);
+        if (zone >= 0 && free.incrementAndGet(zone) == 1) {
+            setHints(zone);
+        }
+    }
+
+    private void clearHints(int zone) {
+        for (int gate = 0; gate < hints.length; gate++) {
+            int position = ranks[gate][zone];
+            hints[gate].getAndAccumulate(position / WORD_BITS, ~(1L << position), (word, mask) -> word & mask);
+        }
+        // A release may have refilled the zone after it was seen full; never leave it unhinted.
+        if (free.get(zone) > 0) {
+            setHints(zone);
+        }
+    }
+
+    private void setHints(int zone) {
+        for (int gate = 0; gate < hints.length; gate++) {
+            int position = ranks[gate][zone];
+            hints[gate].getAndAccumulate(position / WORD_BITS, 1L << position, (word, bit) -> word | bit);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.parkinglot.availability;
+
+import com.parkinglot.enums.Spot;
+import com.parkinglot.enums.Venue;
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * Immutable spot counts of one venue as published by an {@link AvailabilityBoard}. The version goes up
+ * by one every time a count changes, so a poller can tell a fresh board from one it has already shown.
+ */
+@Value
+public class Availability {
+    Venue venue;
+    long version;
+    Map<Spot, Integer> freeSpots;
+    Map<Spot, Integer> occupiedSpots;
+    Map<Spot, Integer> capacity;
+
+    public int getFreeSpots(Spot spot) {
+        return freeSpots.getOrDefault(spot, 0);
+    }
+
+    public int getOccupiedSpots(Spot spot) {
+        return occupiedSpots.getOrDefault(spot, 0);
+    }
+
+    public int getCapacity(Spot spot) {
+        return capacity.getOrDefault(spot, 0);
+    }
+}
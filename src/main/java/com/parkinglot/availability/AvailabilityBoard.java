@@ -0,0 +1,98 @@
+package com.parkinglot.availability;
+
+import com.parkinglot.ParkingVenue;
+import com.parkinglot.enums.Spot;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Read side of a venue for road signs, apps and dashboards.
+ * <p>
+ * The board holds the latest {@link Availability} in a volatile field, so {@link #current()} is a single
+ * wait-free read and pollers never touch the gates' data. A publisher, usually a scheduled task started
+ * with {@link #start}, samples the venue's lock-free spot counters and replaces the board only when a
+ * count has changed. Subscribers are called on the publisher thread once per new version: any number of
+ * parks between two publications collapse into one notification, and gates never call a subscriber.
+ */
+public class AvailabilityBoard {
+
+    private final ParkingVenue venue;
+    private final List<Consumer<Availability>> subscribers = new CopyOnWriteArrayList<>();
+    private volatile Availability current;
+
+    public AvailabilityBoard(ParkingVenue venue) {
+        this.venue = venue;
+        this.current = sample(0);
+    }
+
+    public Availability current() {
+        return current;
+    }
+
+    /**
+     * Samples the venue and publishes a new version if any count has changed since the last one.
+     *
+     * @return {@code true} if a new version was published
+     */
+    public synchronized boolean publish() {
+        Availability previous = current;
+        Availability sampled = sample(previous.getVersion() + 1);
+        if (sampled.getFreeSpots().equals(previous.getFreeSpots())
+                && sampled.getOccupiedSpots().equals(previous.getOccupiedSpots())
+                && sampled.getCapacity().equals(previous.getCapacity())) {
+            return false;
+        }
+        current = sampled;
+        for (Consumer<Availability> subscriber : subscribers) {
+            try {
+                subscriber.accept(sampled);
+            } catch (RuntimeException e) {
+                // A broken display must not stop the others from being updated.
+                subscribers.remove(subscriber);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Publishes every {@code period} on {@code scheduler} until the returned future is cancelled.
+     */
+    public ScheduledFuture<?> start(ScheduledExecutorService scheduler, Duration period) {
+        long nanos = period.toNanos();
+        return scheduler.scheduleAtFixedRate(this::publish, nanos, nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Calls {@code subscriber} with every version published from now on. A subscriber that throws is
+     * unsubscribed.
+     */
+    public void subscribe(Consumer<Availability> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    public boolean unsubscribe(Consumer<Availability> subscriber) {
+        return subscribers.remove(subscriber);
+    }
+
+    private Availability sample(long version) {
+        Map<Spot, Integer> freeSpots = new EnumMap<>(Spot.class);
+        Map<Spot, Integer> occupiedSpots = new EnumMap<>(Spot.class);
+        Map<Spot, Integer> capacity = new EnumMap<>(Spot.class);
+        for (Spot spot : venue.getConfiguredSpots()) {
+            freeSpots.put(spot, venue.getFreeSpots(spot));
+            occupiedSpots.put(spot, venue.getOccupiedSpots(spot));
+            capacity.put(spot, venue.getCapacity(spot));
+        }
+        return new Availability(venue.getType(), version, Collections.unmodifiableMap(freeSpots),
+                Collections.unmodifiableMap(occupiedSpots), Collections.unmodifiableMap(capacity));
+    }
+}
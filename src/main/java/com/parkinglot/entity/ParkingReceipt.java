@@ -3,33 +3,24 @@ package com.parkinglot.entity;
 import lombok.Value;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
-import static java.lang.String.format;
+import static com.parkinglot.entity.Rendering.DATE_TIME_FORMAT;
+import static com.parkinglot.entity.Rendering.appendNumber;
 
 @Value
 public class ParkingReceipt {
-    private static int receiptCounter = 0;
-    String receiptNumber;
+    long receiptNumber;
     LocalDateTime entryDateTime;
     LocalDateTime exitDateTime;
     long fees;
-    public ParkingReceipt(LocalDateTime entryDateTime, LocalDateTime exitDateTime, long fees) {
-        this.receiptNumber = format("R-%03d", ++receiptCounter);
-        this.entryDateTime = entryDateTime;
-        this.exitDateTime = exitDateTime;
-        this.fees = fees;
-    }
 
     @Override
     public String toString() {
-        return format("Parking Receipt:\n" +
-                        " Receipt Number: %s\n" +
-                        " Entry Date-time: %s\n" +
-                        " Exit Date-time: %s\n" +
-                        " Fees: %d", receiptNumber,
-                entryDateTime.format(DateTimeFormatter.ofPattern("dd-MMM-yyyy HH:mm:ss")),
-                exitDateTime.format(DateTimeFormatter.ofPattern("dd-MMM-yyyy HH:mm:ss")),
-                fees);
+        StringBuilder text = new StringBuilder(128).append("Parking Receipt:\n Receipt Number: R-");
+        appendNumber(text, receiptNumber).append("\n Entry Date-time: ");
+        DATE_TIME_FORMAT.formatTo(entryDateTime, text);
+        text.append("\n Exit Date-time: ");
+        DATE_TIME_FORMAT.formatTo(exitDateTime, text);
+        return text.append("\n Fees: ").append(fees).toString();
     }
 }
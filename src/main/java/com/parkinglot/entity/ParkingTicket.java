@@ -3,29 +3,23 @@ package com.parkinglot.entity;
 import lombok.Value;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
-import static java.lang.String.format;
+import static com.parkinglot.entity.Rendering.DATE_TIME_FORMAT;
+import static com.parkinglot.entity.Rendering.appendNumber;
 
 @Value
 public class ParkingTicket {
-    private static int ticketCounter = 0;
-    String ticketNumber;
+    long ticketNumber;
     int spotNumber;
     LocalDateTime entryDateTime;
 
-    public ParkingTicket(int spotNumber, LocalDateTime entryDateTime) {
-        ticketNumber = format("%03d", ++ticketCounter);
-        this.spotNumber = spotNumber;
-        this.entryDateTime = entryDateTime;
-    }
-
     @Override
     public String toString() {
-        return format("Parking Ticket:\n" +
-                        " Ticket Number: %s\n" +
-                        " Spot Number: %d\n" +
-                        " Entry Date-time: %s", ticketNumber, spotNumber,
-                entryDateTime.format(DateTimeFormatter.ofPattern("dd-MMM-yyyy HH:mm:ss")));
+        StringBuilder text = new StringBuilder(96).append("Parking Ticket:\n Ticket Number: ");
+        appendNumber(text, ticketNumber)
+                .append("\n Spot Number: ").append(spotNumber)
+                .append("\n Entry Date-time: ");
+        DATE_TIME_FORMAT.formatTo(entryDateTime, text);
+        return text.toString();
     }
 }
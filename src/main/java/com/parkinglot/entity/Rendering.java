@@ -0,0 +1,30 @@
+package com.parkinglot.entity;
+
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Shared text rendering for tickets and receipts. Numbers are kept as primitives on the entities and
+ * only turned into text here, when an entity is printed.
+ */
+final class Rendering {
+
+    static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("dd-MMM-yyyy HH:mm:ss");
+
+    private static final int MIN_NUMBER_DIGITS = 3;
+    private static final long PADDED_BOUND = (long) Math.pow(10, MIN_NUMBER_DIGITS - 1);
+
+    private Rendering() {
+    }
+
+    /**
+     * Appends {@code number} padded with leading zeros to at least {@link #MIN_NUMBER_DIGITS} digits.
+     */
+    static StringBuilder appendNumber(StringBuilder text, long number) {
+        if (number >= 0) {
+            for (long bound = PADDED_BOUND; bound > 1 && number < bound; bound /= 10) {
+                text.append('0');
+            }
+        }
+        return text.append(number);
+    }
+}
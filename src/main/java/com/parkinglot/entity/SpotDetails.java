@@ -7,4 +7,6 @@ import lombok.Value;
 public class SpotDetails {
     Spot spot;
     int spotNumber;
+    int level;
+    String zone;
 }
@@ -0,0 +1,8 @@
+package com.parkinglot.enums;
+
+public enum ReservationState {
+    HELD,
+    CLAIMED,
+    CANCELLED,
+    EXPIRED
+}
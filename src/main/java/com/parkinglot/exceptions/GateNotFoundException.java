@@ -0,0 +1,7 @@
+package com.parkinglot.exceptions;
+
+public class GateNotFoundException extends RuntimeException {
+    public GateNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.parkinglot.exceptions;
+
+public class GateOverloadedException extends RuntimeException{
+    public GateOverloadedException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,7 @@
+package com.parkinglot.exceptions;
+
+public class InvalidTicketException extends RuntimeException{
+    public InvalidTicketException(String message) {
+        super(message);
+    }
+}
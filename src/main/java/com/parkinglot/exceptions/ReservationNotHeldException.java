@@ -0,0 +1,7 @@
+package com.parkinglot.exceptions;
+
+public class ReservationNotHeldException extends RuntimeException{
+    public ReservationNotHeldException(String message) {
+        super(message);
+    }
+}
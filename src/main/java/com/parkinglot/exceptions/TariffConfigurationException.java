@@ -0,0 +1,7 @@
+package com.parkinglot.exceptions;
+
+public class TariffConfigurationException extends RuntimeException{
+    public TariffConfigurationException(String message) {
+        super(message);
+    }
+}
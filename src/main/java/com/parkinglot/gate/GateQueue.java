@@ -0,0 +1,171 @@
+package com.parkinglot.gate;
+
+import com.parkinglot.ParkingVenue;
+import com.parkinglot.entity.ParkingReceipt;
+import com.parkinglot.entity.ParkingTicket;
+import com.parkinglot.enums.Spot;
+import com.parkinglot.exceptions.GateOverloadedException;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.String.format;
+
+/**
+ * Bounded, asynchronous front end for the gates of one venue.
+ * <p>
+ * Gate events are queued and the returned futures complete once the venue has handled them. At most one
+ * drain task per venue runs on the executor at a time, and it handles up to {@code batchSize} events
+ * back to back before yielding, so a busy venue costs one task hand-off per batch rather than per event.
+ * When {@code capacity} events are already waiting, new events fail at once with
+ * {@link GateOverloadedException}; that is the signal for a gate to back off.
+ */
+public class GateQueue {
+
+    private static final GateOverloadedException OVERLOADED = new GateOverloadedException("Gate queue is full");
+
+    private final ParkingVenue venue;
+    private final Executor executor;
+    private final int capacity;
+    private final int batchSize;
+    private final Queue<GateEvent<?>> events = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    public GateQueue(ParkingVenue venue, Executor executor, int capacity, int batchSize) {
+        if (capacity < 1 || batchSize < 1) {
+            throw new IllegalArgumentException(format("Capacity [%d] and batch size [%d] must be positive",
+                    capacity, batchSize));
+        }
+        this.venue = venue;
+        this.executor = executor;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return a future of the ticket, or of an empty result if the lot is full
+     */
+    public CompletableFuture<Optional<ParkingTicket>> park(Spot spot, LocalDateTime entryDateTime) {
+        return submit(new Park(spot, entryDateTime));
+    }
+
+    public CompletableFuture<ParkingReceipt> unpark(Spot spot, ParkingTicket ticket, LocalDateTime exitDateTime) {
+        return submit(new Unpark(spot, ticket, exitDateTime));
+    }
+
+    /**
+     * @return the number of events accepted but not yet handled
+     */
+    public int getPendingEvents() {
+        return pending.get();
+    }
+
+    public ParkingVenue getVenue() {
+        return venue;
+    }
+
+    private <T> CompletableFuture<T> submit(GateEvent<T> event) {
+        if (pending.incrementAndGet() > capacity) {
+            pending.decrementAndGet();
+            return CompletableFuture.failedFuture(OVERLOADED);
+        }
+        events.add(event);
+        schedule();
+        return event.result;
+    }
+
+    private void schedule() {
+        if (!scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            GateEvent<?> event;
+            while ((event = events.poll()) != null) {
+                pending.decrementAndGet();
+                event.result.completeExceptionally(e);
+            }
+            scheduled.set(false);
+        }
+    }
+
+    private void drain() {
+        try {
+            for (int i = 0; i < batchSize; i++) {
+                GateEvent<?> event = events.poll();
+                if (event == null) {
+                    break;
+                }
+                pending.decrementAndGet();
+                event.handle(venue);
+            }
+        } finally {
+            scheduled.set(false);
+            // An event added after the last poll may have seen the drain as still scheduled.
+            if (!events.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+
+    private abstract static class GateEvent<T> {
+
+        final CompletableFuture<T> result = new CompletableFuture<>();
+
+        abstract T apply(ParkingVenue venue);
+
+        void handle(ParkingVenue venue) {
+            try {
+                result.complete(apply(venue));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+                if (e instanceof Error) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static final class Park extends GateEvent<Optional<ParkingTicket>> {
+
+        private final Spot spot;
+        private final LocalDateTime entryDateTime;
+
+        Park(Spot spot, LocalDateTime entryDateTime) {
+            this.spot = spot;
+            this.entryDateTime = entryDateTime;
+        }
+
+        @Override
+        Optional<ParkingTicket> apply(ParkingVenue venue) {
+            return venue.tryPark(spot, entryDateTime);
+        }
+    }
+
+    private static final class Unpark extends GateEvent<ParkingReceipt> {
+
+        private final Spot spot;
+        private final ParkingTicket ticket;
+        private final LocalDateTime exitDateTime;
+
+        Unpark(Spot spot, ParkingTicket ticket, LocalDateTime exitDateTime) {
+            this.spot = spot;
+            this.ticket = ticket;
+            this.exitDateTime = exitDateTime;
+        }
+
+        @Override
+        ParkingReceipt apply(ParkingVenue venue) {
+            return venue.unpark(spot, ticket, exitDateTime);
+        }
+    }
+}
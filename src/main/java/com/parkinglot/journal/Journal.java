@@ -0,0 +1,328 @@
+package com.parkinglot.journal;
+
+import com.parkinglot.enums.Spot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import static java.lang.String.format;
+
+/**
+ * Write-ahead journal of park and unpark events, stored as fixed-size records in a directory of
+ * memory-mapped segment files.
+ * <p>
+ * Appending reserves a slot with a single atomic increment and writes straight into the mapping, so
+ * gates never serialise on the journal. Durability uses group commit: a gate waiting for its record
+ * takes the commit lock, and whoever holds it forces every record published so far. Gates queued
+ * behind it usually find their record already durable and return without forcing again.
+ * <p>
+ * Records are addressed by a global position; position {@code p} lives in segment
+ * {@code p / recordsPerSegment}.
+ * <p>
+ * A record that cannot be written leaves a hole that no later record can be committed past, so the
+ * journal fails: further appends, and commits of records from the hole on, throw instead of waiting.
+ */
+public class Journal implements Closeable {
+
+    public static final int DEFAULT_RECORDS_PER_SEGMENT = 1 << 18;
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final boolean syncOnAppend;
+    private final ConcurrentSkipListMap<Long, JournalSegment> segments = new ConcurrentSkipListMap<>();
+    private final AtomicLong nextPosition;
+    private final ReentrantLock commitLock = new ReentrantLock();
+    private volatile long durablePosition;
+    private volatile JournalSegment current;
+    private final AtomicLong failedPosition = new AtomicLong(Long.MAX_VALUE);
+    private volatile RuntimeException failure;
+
+    private Journal(Path directory, int recordsPerSegment, boolean syncOnAppend) throws IOException {
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+        this.syncOnAppend = syncOnAppend;
+        Files.createDirectories(directory);
+        for (Path path : listSegmentFiles(directory)) {
+            long index = segmentIndex(path);
+            segments.put(index, new JournalSegment(index, path, recordsPerSegment));
+        }
+        long end = recover();
+        this.nextPosition = new AtomicLong(end);
+        this.durablePosition = end;
+    }
+
+    /**
+     * Opens the journal in {@code directory}, creating it if needed, with every append made durable
+     * before it returns.
+     */
+    public static Journal open(Path directory) {
+        return open(directory, DEFAULT_RECORDS_PER_SEGMENT, true);
+    }
+
+    /**
+     * @param syncOnAppend whether appends wait for their record to be forced to disk; when
+     *                     {@code false} durability is only guaranteed after {@link #sync()}
+     */
+    public static Journal open(Path directory, int recordsPerSegment, boolean syncOnAppend) {
+        if (recordsPerSegment <= 0 || recordsPerSegment > Integer.MAX_VALUE / JournalSegment.RECORD_SIZE) {
+            throw new IllegalArgumentException("Invalid records per segment: " + recordsPerSegment);
+        }
+        try {
+            return new Journal(directory, recordsPerSegment, syncOnAppend);
+        } catch (IOException e) {
+            throw new UncheckedIOException(format("Cannot open journal in [%s]", directory), e);
+        }
+    }
+
+    public long appendPark(Spot spot, int spotNumber, long ticketNumber, long entryEpochSecond) {
+        return append(JournalSegment.PARK, spot, spotNumber, ticketNumber, 0, entryEpochSecond, 0);
+    }
+
+    public long appendUnpark(Spot spot, int spotNumber, long receiptNumber, long ticketNumber,
+                             long exitEpochSecond, long fee) {
+        return append(JournalSegment.UNPARK, spot, spotNumber, receiptNumber, ticketNumber, exitEpochSecond, fee);
+    }
+
+    private long append(int type, Spot spot, int spotNumber, long sequence, long ticketNumber, long epochSecond,
+                        long fee) {
+        checkNotFailed(nextPosition.get());
+        long position = nextPosition.getAndIncrement();
+        try {
+            segmentFor(position).write(slot(position), type, spot.ordinal(), spotNumber, sequence, ticketNumber,
+                    epochSecond, fee);
+        } catch (RuntimeException e) {
+            failure = e;
+            failedPosition.accumulateAndGet(position, Math::min);
+            throw e;
+        }
+        if (syncOnAppend) {
+            commit(position);
+        }
+        return position;
+    }
+
+    /**
+     * Blocks until the record at {@code position} and every record before it are on disk.
+     *
+     * @throws IllegalStateException if a record up to {@code position} could not be written
+     */
+    public void commit(long position) {
+        while (durablePosition <= position) {
+            checkNotFailed(position);
+            commitLock.lock();
+            try {
+                if (durablePosition <= position) {
+                    flush();
+                }
+            } finally {
+                commitLock.unlock();
+            }
+            if (durablePosition <= position) {
+                // An earlier slot is reserved but its writer has not published it yet.
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * Forces every record appended so far.
+     *
+     * @throws IllegalStateException if the journal has failed; the records before the failure are forced
+     */
+    public void sync() {
+        long last = Math.min(nextPosition.get(), failedPosition.get()) - 1;
+        if (last >= 0) {
+            commit(last);
+        }
+        checkNotFailed(nextPosition.get());
+    }
+
+    /**
+     * Visits every record from {@code fromPosition} up to the end of the journal.
+     */
+    public void replay(long fromPosition, JournalVisitor visitor) {
+        long end = nextPosition.get();
+        for (long position = Math.max(fromPosition, getStartPosition()); position < end; position++) {
+            JournalSegment segment = segments.get(position / recordsPerSegment);
+            int slot = slot(position);
+            if (segment == null || !segment.isPublished(slot)) {
+                break;
+            }
+            Spot spot = Spot.values()[segment.spotOrdinal(slot)];
+            if (segment.type(slot) == JournalSegment.PARK) {
+                visitor.onPark(spot, segment.spotNumber(slot), segment.sequence(slot), segment.epochSecond(slot));
+            } else {
+                visitor.onUnpark(spot, segment.spotNumber(slot), segment.sequence(slot), segment.ticketNumber(slot),
+                        segment.epochSecond(slot), segment.fee(slot));
+            }
+        }
+    }
+
+    /**
+     * Deletes every segment that only holds records before {@code position}, typically the position of
+     * a snapshot that has just been written. Waits for those records to be published first, so no
+     * gate is still writing into a deleted segment.
+     */
+    public void truncateBefore(long position) {
+        if (position <= 0) {
+            return;
+        }
+        commit(position - 1);
+        long firstKept = position / recordsPerSegment;
+        for (Map.Entry<Long, JournalSegment> segment : segments.headMap(firstKept).entrySet()) {
+            try {
+                segment.getValue().close();
+                Files.delete(segment.getValue().getPath());
+            } catch (IOException e) {
+                throw new UncheckedIOException(format("Cannot delete journal segment [%s]",
+                        segment.getValue().getPath()), e);
+            }
+            segments.remove(segment.getKey());
+        }
+    }
+
+    /**
+     * @return the position the next append will get
+     */
+    public long getNextPosition() {
+        return nextPosition.get();
+    }
+
+    /**
+     * @return the position of the oldest record still retained
+     */
+    public long getStartPosition() {
+        return segments.isEmpty() ? nextPosition.get() : segments.firstKey() * recordsPerSegment;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            for (JournalSegment segment : segments.values()) {
+                segment.close();
+            }
+            segments.clear();
+        }
+    }
+
+    private void checkNotFailed(long position) {
+        if (failedPosition.get() <= position) {
+            throw new IllegalStateException(format("Journal in [%s] failed to write record [%d]",
+                    directory, failedPosition.get()), failure);
+        }
+    }
+
+    private void flush() {
+        long from = durablePosition;
+        long limit = nextPosition.get();
+        long to = from;
+        while (to < limit) {
+            JournalSegment segment = segments.get(to / recordsPerSegment);
+            if (segment == null || !segment.isPublished(slot(to))) {
+                break;
+            }
+            to++;
+        }
+        for (long position = from; position < to; ) {
+            JournalSegment segment = segments.get(position / recordsPerSegment);
+            long segmentEnd = Math.min(to, (segment.getIndex() + 1) * recordsPerSegment);
+            segment.force(slot(position), slot(segmentEnd - 1) + 1);
+            position = segmentEnd;
+        }
+        durablePosition = to;
+    }
+
+    /**
+     * Finds the first position without a valid record and discards everything after it, so that new
+     * appends never sit in front of stale records from a previous run.
+     */
+    private long recover() throws IOException {
+        if (segments.isEmpty()) {
+            return 0;
+        }
+        long position = segments.firstKey() * recordsPerSegment;
+        while (true) {
+            JournalSegment segment = segments.get(position / recordsPerSegment);
+            if (segment == null || !segment.isValid(slot(position))) {
+                break;
+            }
+            position++;
+        }
+        JournalSegment last = segments.get(position / recordsPerSegment);
+        if (last != null) {
+            for (int slot = slot(position); slot < recordsPerSegment; slot++) {
+                if (last.isPublished(slot)) {
+                    last.clear(slot);
+                }
+            }
+        }
+        for (Map.Entry<Long, JournalSegment> stale : segments.tailMap(position / recordsPerSegment, false).entrySet()) {
+            stale.getValue().close();
+            Files.delete(stale.getValue().getPath());
+            segments.remove(stale.getKey());
+        }
+        return position;
+    }
+
+    private JournalSegment segmentFor(long position) {
+        long index = position / recordsPerSegment;
+        JournalSegment segment = current;
+        if (segment != null && segment.getIndex() == index) {
+            return segment;
+        }
+        segment = segments.computeIfAbsent(index, this::createSegment);
+        if (current == null || current.getIndex() < index) {
+            current = segment;
+        }
+        return segment;
+    }
+
+    private JournalSegment createSegment(long index) {
+        try {
+            return new JournalSegment(index, directory.resolve(segmentFileName(index)), recordsPerSegment);
+        } catch (IOException e) {
+            throw new UncheckedIOException(format("Cannot create journal segment [%d] in [%s]", index, directory), e);
+        }
+    }
+
+    private int slot(long position) {
+        return (int) (position % recordsPerSegment);
+    }
+
+    private static List<Path> listSegmentFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segmentFiles = new ArrayList<>();
+            files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .forEach(segmentFiles::add);
+            return segmentFiles;
+        }
+    }
+
+    private static String segmentFileName(long index) {
+        return format("%020d%s", index, SEGMENT_SUFFIX);
+    }
+
+    private static long segmentIndex(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,163 @@
+package com.parkinglot.journal;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * One memory-mapped journal file holding a fixed number of fixed-size records.
+ * <p>
+ * Record layout, little endian:
+ * <pre>
+ *  0  long  sequence      ticket number of a park, receipt number of an unpark
+ *  8  long  ticketNumber  ticket closed by an unpark, 0 for a park
+ * 16  long  epochSecond   entry or exit time
+ * 24  long  fee           fee charged by an unpark, 0 for a park
+ * 32  int   spotNumber
+ * 36  int   checksum      of every other field
+ * 40  int   header        magic, record type and spot type; written last
+ * 44  int   reserved
+ * </pre>
+ * A record exists once its header is visible; everything else is written before the header is
+ * published with release semantics.
+ */
+final class JournalSegment {
+
+    static final int RECORD_SIZE = 48;
+
+    static final int PARK = 1;
+    static final int UNPARK = 2;
+
+    private static final int SEQUENCE = 0;
+    private static final int TICKET_NUMBER = 8;
+    private static final int EPOCH_SECOND = 16;
+    private static final int FEE = 24;
+    private static final int SPOT_NUMBER = 32;
+    private static final int CHECKSUM = 36;
+    private static final int HEADER = 40;
+
+    private static final int MAGIC = 0x504C;
+
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final long index;
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int records;
+
+    JournalSegment(long index, Path path, int records) throws IOException {
+        this.index = index;
+        this.path = path;
+        this.records = records;
+        this.channel = FileChannel.open(path, CREATE, READ, WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) records * RECORD_SIZE);
+        this.buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    void write(int slot, int type, int spotOrdinal, int spotNumber, long sequence, long ticketNumber,
+               long epochSecond, long fee) {
+        int base = slot * RECORD_SIZE;
+        int header = header(type, spotOrdinal);
+        buffer.putLong(base + SEQUENCE, sequence);
+        buffer.putLong(base + TICKET_NUMBER, ticketNumber);
+        buffer.putLong(base + EPOCH_SECOND, epochSecond);
+        buffer.putLong(base + FEE, fee);
+        buffer.putInt(base + SPOT_NUMBER, spotNumber);
+        buffer.putInt(base + CHECKSUM, checksum(header, spotNumber, sequence, ticketNumber, epochSecond, fee));
+        INT.setRelease(buffer, base + HEADER, header);
+    }
+
+    boolean isPublished(int slot) {
+        return (int) INT.getAcquire(buffer, slot * RECORD_SIZE + HEADER) != 0;
+    }
+
+    /**
+     * @return {@code true} if the slot holds a complete, uncorrupted record
+     */
+    boolean isValid(int slot) {
+        int base = slot * RECORD_SIZE;
+        int header = (int) INT.getAcquire(buffer, base + HEADER);
+        if (header >>> 16 != MAGIC) {
+            return false;
+        }
+        return buffer.getInt(base + CHECKSUM) == checksum(header, spotNumber(slot), sequence(slot),
+                ticketNumber(slot), epochSecond(slot), fee(slot));
+    }
+
+    void clear(int slot) {
+        INT.setRelease(buffer, slot * RECORD_SIZE + HEADER, 0);
+    }
+
+    int type(int slot) {
+        return (buffer.getInt(slot * RECORD_SIZE + HEADER) >>> 8) & 0xFF;
+    }
+
+    int spotOrdinal(int slot) {
+        return buffer.getInt(slot * RECORD_SIZE + HEADER) & 0xFF;
+    }
+
+    int spotNumber(int slot) {
+        return buffer.getInt(slot * RECORD_SIZE + SPOT_NUMBER);
+    }
+
+    long sequence(int slot) {
+        return buffer.getLong(slot * RECORD_SIZE + SEQUENCE);
+    }
+
+    long ticketNumber(int slot) {
+        return buffer.getLong(slot * RECORD_SIZE + TICKET_NUMBER);
+    }
+
+    long epochSecond(int slot) {
+        return buffer.getLong(slot * RECORD_SIZE + EPOCH_SECOND);
+    }
+
+    long fee(int slot) {
+        return buffer.getLong(slot * RECORD_SIZE + FEE);
+    }
+
+    void force(int fromSlot, int toSlot) {
+        buffer.force(fromSlot * RECORD_SIZE, (toSlot - fromSlot) * RECORD_SIZE);
+    }
+
+    void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    long getIndex() {
+        return index;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    int getRecords() {
+        return records;
+    }
+
+    private static int header(int type, int spotOrdinal) {
+        return MAGIC << 16 | type << 8 | spotOrdinal;
+    }
+
+    private static int checksum(int header, int spotNumber, long sequence, long ticketNumber, long epochSecond,
+                                long fee) {
+        long hash = header;
+        hash = hash * 0x9E3779B97F4A7C15L + spotNumber;
+        hash = hash * 0x9E3779B97F4A7C15L + sequence;
+        hash = hash * 0x9E3779B97F4A7C15L + ticketNumber;
+        hash = hash * 0x9E3779B97F4A7C15L + epochSecond;
+        hash = hash * 0x9E3779B97F4A7C15L + fee;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
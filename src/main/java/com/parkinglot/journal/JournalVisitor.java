@@ -0,0 +1,13 @@
+package com.parkinglot.journal;
+
+import com.parkinglot.enums.Spot;
+
+/**
+ * Receives journal records in append order during {@link Journal#replay}.
+ */
+public interface JournalVisitor {
+
+    void onPark(Spot spot, int spotNumber, long ticketNumber, long entryEpochSecond);
+
+    void onUnpark(Spot spot, int spotNumber, long receiptNumber, long ticketNumber, long exitEpochSecond, long fee);
+}
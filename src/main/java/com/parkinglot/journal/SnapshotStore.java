@@ -0,0 +1,147 @@
+package com.parkinglot.journal;
+
+import com.parkinglot.enums.Spot;
+import com.parkinglot.enums.Venue;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import static java.lang.String.format;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+
+/**
+ * Reads and writes {@link VenueSnapshot}s as compact binary files next to the journal segments.
+ * <p>
+ * A snapshot is written to a temporary file, forced and then atomically renamed, so the newest
+ * snapshot file is always complete. Older snapshots are removed once a newer one is in place.
+ */
+public final class SnapshotStore {
+
+    private static final int MAGIC = 0x504C534E;
+    private static final int VERSION = 1;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".bin";
+
+    private SnapshotStore() {
+    }
+
+    public static void write(Path directory, VenueSnapshot snapshot) {
+        Path target = directory.resolve(format("%s%020d%s", PREFIX, snapshot.getJournalPosition(), SUFFIX));
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+        try {
+            try (FileOutputStream file = new FileOutputStream(temporary.toFile())) {
+                CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file), new CRC32());
+                DataOutputStream out = new DataOutputStream(checked);
+                writeSnapshot(out, snapshot);
+                out.flush();
+                out.writeLong(checked.getChecksum().getValue());
+                out.flush();
+                file.getChannel().force(true);
+            }
+            Files.move(temporary, target, ATOMIC_MOVE);
+            for (Path older : listSnapshots(directory)) {
+                if (!older.equals(target)) {
+                    Files.delete(older);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(format("Cannot write snapshot [%s]", target), e);
+        }
+    }
+
+    /**
+     * @return the newest snapshot in {@code directory}, or {@code null} if there is none
+     */
+    public static VenueSnapshot readLatest(Path directory) {
+        List<Path> snapshots;
+        try {
+            snapshots = listSnapshots(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(format("Cannot list snapshots in [%s]", directory), e);
+        }
+        if (snapshots.isEmpty()) {
+            return null;
+        }
+        Path latest = snapshots.get(snapshots.size() - 1);
+        try (CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(latest)), new CRC32())) {
+            DataInputStream in = new DataInputStream(checked);
+            VenueSnapshot snapshot = readSnapshot(in);
+            long expected = checked.getChecksum().getValue();
+            if (in.readLong() != expected) {
+                throw new IllegalStateException(format("Snapshot [%s] is corrupt", latest));
+            }
+            return snapshot;
+        } catch (IOException e) {
+            throw new UncheckedIOException(format("Cannot read snapshot [%s]", latest), e);
+        }
+    }
+
+    private static void writeSnapshot(DataOutputStream out, VenueSnapshot snapshot) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeByte(snapshot.getVenue().ordinal());
+        out.writeLong(snapshot.getJournalPosition());
+        out.writeLong(snapshot.getTicketSequence());
+        out.writeLong(snapshot.getReceiptSequence());
+        out.writeInt(snapshot.getSpots().size());
+        for (SpotSnapshot spot : snapshot.getSpots()) {
+            out.writeByte(spot.getSpot().ordinal());
+            out.writeInt(spot.getCapacity());
+            writeLongs(out, spot.getOccupied());
+            writeLongs(out, spot.getTicketNumbers());
+            writeLongs(out, spot.getEntryEpochSeconds());
+        }
+    }
+
+    private static VenueSnapshot readSnapshot(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IllegalStateException("Not a snapshot file");
+        }
+        Venue venue = Venue.values()[in.readUnsignedByte()];
+        long journalPosition = in.readLong();
+        long ticketSequence = in.readLong();
+        long receiptSequence = in.readLong();
+        int spotCount = in.readInt();
+        List<SpotSnapshot> spots = new ArrayList<>(spotCount);
+        for (int i = 0; i < spotCount; i++) {
+            Spot spot = Spot.values()[in.readUnsignedByte()];
+            int capacity = in.readInt();
+            spots.add(new SpotSnapshot(spot, capacity, readLongs(in), readLongs(in), readLongs(in)));
+        }
+        return new VenueSnapshot(venue, journalPosition, ticketSequence, receiptSequence, spots);
+    }
+
+    private static void writeLongs(DataOutputStream out, long[] values) throws IOException {
+        out.writeInt(values.length);
+        for (long value : values) {
+            out.writeLong(value);
+        }
+    }
+
+    private static long[] readLongs(DataInputStream in) throws IOException {
+        long[] values = new long[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readLong();
+        }
+        return values;
+    }
+
+    private static List<Path> listSnapshots(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> snapshots = new ArrayList<>();
+            files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }).sorted().forEach(snapshots::add);
+            return snapshots;
+        }
+    }
+}
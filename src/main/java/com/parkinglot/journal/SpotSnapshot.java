@@ -0,0 +1,17 @@
+package com.parkinglot.journal;
+
+import com.parkinglot.enums.Spot;
+import lombok.Value;
+
+/**
+ * Occupancy of one spot type: a bitmap of occupied spots and, for each set bit in ascending spot
+ * order, the ticket number and entry time of the session holding it.
+ */
+@Value
+public class SpotSnapshot {
+    Spot spot;
+    int capacity;
+    long[] occupied;
+    long[] ticketNumbers;
+    long[] entryEpochSeconds;
+}
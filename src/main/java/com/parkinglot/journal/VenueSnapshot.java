@@ -0,0 +1,19 @@
+package com.parkinglot.journal;
+
+import com.parkinglot.enums.Venue;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Point-in-time state of a venue. Every journal record before {@code journalPosition} is reflected
+ * in it; records from that position on may or may not be, and are replayed on recovery.
+ */
+@Value
+public class VenueSnapshot {
+    Venue venue;
+    long journalPosition;
+    long ticketSequence;
+    long receiptSequence;
+    List<SpotSnapshot> spots;
+}
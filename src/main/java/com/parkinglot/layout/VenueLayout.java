@@ -0,0 +1,189 @@
+package com.parkinglot.layout;
+
+import com.parkinglot.allocation.ZoneIndex;
+import com.parkinglot.entity.SpotDetails;
+import com.parkinglot.enums.Spot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static java.lang.String.format;
+
+/**
+ * Levels and zones of a multi-storey venue and the zones each entry gate prefers, nearest first.
+ * <p>
+ * Spots of each type are numbered from 1 through their zones in the order the zones are added, so a
+ * zone is a range of spot numbers. A gate lists the zones it is closest to; zones it does not list
+ * follow in the order they were added.
+ * <pre>
+ * VenueLayout layout = VenueLayout.builder()
+ *         .zone("L0-A", 0, CAR_OR_SUV, 120)
+ *         .zone("L1-A", 1, CAR_OR_SUV, 200)
+ *         .gate("NORTH", "L0-A", "L1-A")
+ *         .gate("RAMP", "L1-A")
+ *         .build();
+ * </pre>
+ */
+public final class VenueLayout {
+
+    private final Map<Spot, List<Zone>> zones;
+    private final Map<String, Zone> zonesByName;
+    private final List<String> gates;
+    private final Map<String, Integer> gateIndexes;
+    private final Map<Spot, int[][]> preferences;
+
+    private VenueLayout(Map<Spot, List<Zone>> zones, Map<String, Zone> zonesByName, List<String> gates,
+                        Map<Spot, int[][]> preferences) {
+        this.zones = zones;
+        this.zonesByName = zonesByName;
+        this.gates = gates;
+        this.gateIndexes = new HashMap<>();
+        for (int gate = 0; gate < gates.size(); gate++) {
+            gateIndexes.put(gates.get(gate), gate);
+        }
+        this.preferences = preferences;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Set<Spot> getSpots() {
+        return Collections.unmodifiableSet(zones.keySet());
+    }
+
+    /**
+     * @return the zones holding spots of the given type, in spot number order
+     */
+    public List<Zone> getZones(Spot spot) {
+        return zones.getOrDefault(spot, List.of());
+    }
+
+    public Optional<Zone> getZone(String name) {
+        return Optional.ofNullable(zonesByName.get(name));
+    }
+
+    public List<String> getGates() {
+        return gates;
+    }
+
+    /**
+     * @return the position of the gate in {@link #getGates()}, or {@code -1} for an unknown gate
+     */
+    public int getGateIndex(String gate) {
+        return gateIndexes.getOrDefault(gate, -1);
+    }
+
+    public int getCapacity(Spot spot) {
+        List<Zone> spotZones = getZones(spot);
+        return spotZones.isEmpty() ? 0 : spotZones.get(spotZones.size() - 1).getLastSpotNumber();
+    }
+
+    /**
+     * @return the level and zone of a spot, or empty if the spot is outside every zone
+     */
+    public Optional<SpotDetails> getSpotDetails(Spot spot, int spotNumber) {
+        List<Zone> spotZones = getZones(spot);
+        int low = 0;
+        int high = spotZones.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            Zone zone = spotZones.get(middle);
+            if (spotNumber < zone.getFirstSpotNumber()) {
+                high = middle - 1;
+            } else if (spotNumber > zone.getLastSpotNumber()) {
+                low = middle + 1;
+            } else {
+                return Optional.of(new SpotDetails(spot, spotNumber, zone.getLevel(), zone.getName()));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Creates the free spot counters and gate preferences for the spots of one type.
+     */
+    public ZoneIndex createZoneIndex(Spot spot) {
+        List<Zone> spotZones = getZones(spot);
+        int[] sizes = new int[spotZones.size()];
+        for (int zone = 0; zone < sizes.length; zone++) {
+            sizes[zone] = spotZones.get(zone).getSize();
+        }
+        return new ZoneIndex(sizes, preferences.get(spot));
+    }
+
+    public static final class Builder {
+
+        private final Map<Spot, List<Zone>> zones = new EnumMap<>(Spot.class);
+        private final Map<String, Zone> zonesByName = new HashMap<>();
+        private final Map<String, List<String>> gates = new LinkedHashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a zone of {@code spots} spots after the zones of the same type added so far.
+         */
+        public Builder zone(String name, int level, Spot spot, int spots) {
+            if (spots <= 0) {
+                throw new IllegalArgumentException(format("Zone [%s] must have spots, not [%d]", name, spots));
+            }
+            if (zonesByName.containsKey(name)) {
+                throw new IllegalArgumentException(format("Zone [%s] is already defined", name));
+            }
+            List<Zone> spotZones = zones.computeIfAbsent(spot, any -> new ArrayList<>());
+            int first = spotZones.isEmpty() ? 1 : spotZones.get(spotZones.size() - 1).getLastSpotNumber() + 1;
+            Zone zone = new Zone(name, level, spot, first, first + spots - 1);
+            spotZones.add(zone);
+            zonesByName.put(name, zone);
+            return this;
+        }
+
+        /**
+         * Adds an entry gate that prefers {@code nearestZones} in the given order.
+         */
+        public Builder gate(String name, String... nearestZones) {
+            if (gates.containsKey(name)) {
+                throw new IllegalArgumentException(format("Gate [%s] is already defined", name));
+            }
+            gates.put(name, List.of(nearestZones));
+            return this;
+        }
+
+        public VenueLayout build() {
+            Map<Spot, int[][]> preferences = new EnumMap<>(Spot.class);
+            zones.forEach((spot, spotZones) -> preferences.put(spot, new int[gates.size()][]));
+            int gate = 0;
+            for (Map.Entry<String, List<String>> entry : gates.entrySet()) {
+                Map<Spot, Set<Integer>> orders = new EnumMap<>(Spot.class);
+                zones.keySet().forEach(spot -> orders.put(spot, new LinkedHashSet<>()));
+                for (String name : entry.getValue()) {
+                    Zone zone = zonesByName.get(name);
+                    if (zone == null) {
+                        throw new IllegalArgumentException(format("Gate [%s] prefers unknown zone [%s]", entry.getKey(), name));
+                    }
+                    orders.get(zone.getSpot()).add(zones.get(zone.getSpot()).indexOf(zone));
+                }
+                for (Map.Entry<Spot, Set<Integer>> order : orders.entrySet()) {
+                    int zoneCount = zones.get(order.getKey()).size();
+                    for (int zone = 0; zone < zoneCount; zone++) {
+                        order.getValue().add(zone);
+                    }
+                    preferences.get(order.getKey())[gate] = order.getValue().stream().mapToInt(Integer::intValue).toArray();
+                }
+                gate++;
+            }
+            Map<Spot, List<Zone>> spotZones = new EnumMap<>(Spot.class);
+            zones.forEach((spot, list) -> spotZones.put(spot, List.copyOf(list)));
+            return new VenueLayout(spotZones, Map.copyOf(zonesByName), List.copyOf(gates.keySet()), preferences);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.parkinglot.layout;
+
+import com.parkinglot.enums.Spot;
+import lombok.Value;
+
+/**
+ * Named group of consecutive spots of one type on one level, numbered nearest to its entrance first.
+ */
+@Value
+public class Zone {
+    String name;
+    int level;
+    Spot spot;
+    int firstSpotNumber;
+    int lastSpotNumber;
+
+    public int getSize() {
+        return lastSpotNumber - firstSpotNumber + 1;
+    }
+
+    public boolean contains(int spotNumber) {
+        return spotNumber >= firstSpotNumber && spotNumber <= lastSpotNumber;
+    }
+}
@@ -0,0 +1,61 @@
+package com.parkinglot.metrics;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static java.lang.String.format;
+
+/**
+ * Serves the metrics of the registered venues on {@code /metrics} for a local Prometheus scraper.
+ * Every sample carries a {@code venue} label.
+ */
+public class MetricsServer implements AutoCloseable {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final List<VenueMetrics> venues = new CopyOnWriteArrayList<>();
+    private final HttpServer server;
+
+    public MetricsServer(InetSocketAddress address) {
+        try {
+            server = HttpServer.create(address, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(format("Cannot listen on [%s]", address), e);
+        }
+        server.createContext("/metrics", exchange -> {
+            byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    public void register(VenueMetrics metrics) {
+        venues.add(metrics);
+    }
+
+    public String scrape() {
+        StringBuilder out = new StringBuilder(2048 * Math.max(1, venues.size()));
+        VenueMetrics.writePrometheus(out, venues);
+        return out.toString();
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,201 @@
+package com.parkinglot.metrics;
+
+import com.parkinglot.ParkingVenue;
+import com.parkinglot.enums.Spot;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Instrumentation of one {@link ParkingVenue}: free and occupied gauges and park, unpark and
+ * rejection counters per {@link Spot}, plus park and unpark latency histograms.
+ * <p>
+ * Counters are {@link LongAdder}s and histograms are striped, so recording never takes a lock.
+ * Gauges are read straight from the venue's spot pools when a snapshot is exported. Counters are
+ * exact, while latency is sampled on one operation in {@value #LATENCY_SAMPLE_RATE}: reading the
+ * clock costs more than the rest of the instrumentation together.
+ */
+public class VenueMetrics {
+
+    public static final long NOT_SAMPLED = Long.MIN_VALUE;
+
+    private static final int LATENCY_SAMPLE_RATE = 32;
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final String venueName;
+    private final String venueLabel;
+    private final ParkingVenue venue;
+    private final Set<Spot> spots;
+    private final LongAdder[] parks = newCounters();
+    private final LongAdder[] unparks = newCounters();
+    private final LongAdder[] rejections = newCounters();
+    private final LatencyHistogram parkLatency = new LatencyHistogram();
+    private final LatencyHistogram unparkLatency = new LatencyHistogram();
+
+    public VenueMetrics(String venueName, ParkingVenue venue, Set<Spot> spots) {
+        this.venueName = venueName;
+        this.venueLabel = escapeLabelValue(venueName);
+        this.venue = venue;
+        this.spots = spots;
+    }
+
+    /**
+     * @return the start time to pass to the record methods, or {@link #NOT_SAMPLED} if this operation's
+     * latency is not sampled
+     */
+    public long startTimer() {
+        return (ThreadLocalRandom.current().nextInt() & (LATENCY_SAMPLE_RATE - 1)) == 0 ? System.nanoTime() : NOT_SAMPLED;
+    }
+
+    public void recordPark(Spot spot, long startNanos) {
+        parks[spot.ordinal()].increment();
+        recordLatency(parkLatency, startNanos);
+    }
+
+    public void recordRejection(Spot spot, long startNanos) {
+        rejections[spot.ordinal()].increment();
+        recordLatency(parkLatency, startNanos);
+    }
+
+    public void recordUnpark(Spot spot, long startNanos) {
+        unparks[spot.ordinal()].increment();
+        recordLatency(unparkLatency, startNanos);
+    }
+
+    /**
+     * Counts the parks, rejections and unparks of a batch; batches are not timed per vehicle.
+     */
+    public void recordBatch(Spot spot, int parked, int rejected, int unparked) {
+        parks[spot.ordinal()].add(parked);
+        rejections[spot.ordinal()].add(rejected);
+        unparks[spot.ordinal()].add(unparked);
+    }
+
+    private static void recordLatency(LatencyHistogram histogram, long startNanos) {
+        if (startNanos != NOT_SAMPLED) {
+            histogram.record(System.nanoTime() - startNanos);
+        }
+    }
+
+    public long getParks(Spot spot) {
+        return parks[spot.ordinal()].sum();
+    }
+
+    public long getUnparks(Spot spot) {
+        return unparks[spot.ordinal()].sum();
+    }
+
+    public long getRejections(Spot spot) {
+        return rejections[spot.ordinal()].sum();
+    }
+
+    public HistogramSnapshot getParkLatency() {
+        return parkLatency.snapshot();
+    }
+
+    public HistogramSnapshot getUnparkLatency() {
+        return unparkLatency.snapshot();
+    }
+
+    public String getVenueName() {
+        return venueName;
+    }
+
+    /**
+     * Appends the current values of every venue in the Prometheus text exposition format, one metric
+     * family at a time with samples labelled by venue.
+     */
+    public static void writePrometheus(StringBuilder out, Collection<VenueMetrics> venues) {
+        header(out, "parking_spots_free", "gauge", "Free spots");
+        for (VenueMetrics metrics : venues) {
+            for (Spot spot : metrics.spots) {
+                metrics.sample(out, "parking_spots_free", spot, metrics.venue.getFreeSpots(spot));
+            }
+        }
+        header(out, "parking_spots_occupied", "gauge", "Occupied spots");
+        for (VenueMetrics metrics : venues) {
+            for (Spot spot : metrics.spots) {
+                metrics.sample(out, "parking_spots_occupied", spot, metrics.venue.getOccupiedSpots(spot));
+            }
+        }
+        counter(out, "parking_park_total", "Vehicles parked", venues, metrics -> metrics.parks);
+        counter(out, "parking_unpark_total", "Vehicles unparked", venues, metrics -> metrics.unparks);
+        counter(out, "parking_park_rejected_total", "Park attempts rejected because the lot was full", venues,
+                metrics -> metrics.rejections);
+        header(out, "parking_park_latency_seconds", "summary", "Sampled park latency, including rejections");
+        for (VenueMetrics metrics : venues) {
+            metrics.summary(out, "parking_park_latency_seconds", metrics.parkLatency.snapshot());
+        }
+        header(out, "parking_unpark_latency_seconds", "summary", "Sampled unpark latency");
+        for (VenueMetrics metrics : venues) {
+            metrics.summary(out, "parking_unpark_latency_seconds", metrics.unparkLatency.snapshot());
+        }
+    }
+
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder(2048);
+        writePrometheus(out, List.of(this));
+        return out.toString();
+    }
+
+    private static void counter(StringBuilder out, String name, String help, Collection<VenueMetrics> venues,
+                                Function<VenueMetrics, LongAdder[]> counters) {
+        header(out, name, "counter", help);
+        for (VenueMetrics metrics : venues) {
+            for (Spot spot : metrics.spots) {
+                metrics.sample(out, name, spot, counters.apply(metrics)[spot.ordinal()].sum());
+            }
+        }
+    }
+
+    private void summary(StringBuilder out, String name, HistogramSnapshot histogram) {
+        for (double quantile : QUANTILES) {
+            out.append(name).append("{venue=\"").append(venueLabel).append("\",quantile=\"").append(quantile)
+                    .append("\"} ").append(histogram.getValueAtQuantile(quantile) / NANOS_PER_SECOND).append('\n');
+        }
+        out.append(name).append("_sum{venue=\"").append(venueLabel).append("\"} ")
+                .append(histogram.getSum() / NANOS_PER_SECOND).append('\n');
+        out.append(name).append("_count{venue=\"").append(venueLabel).append("\"} ")
+                .append(histogram.getCount()).append('\n');
+    }
+
+    private void sample(StringBuilder out, String name, Spot spot, long value) {
+        out.append(name).append("{venue=\"").append(venueLabel).append("\",spot=\"").append(spot).append("\"} ")
+                .append(value).append('\n');
+    }
+
+    // Label values escape backslash, double quote and line feed as the text exposition format requires.
+    private static String escapeLabelValue(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char character = value.charAt(i);
+            if (character == '\\' || character == '"') {
+                escaped.append('\\').append(character);
+            } else if (character == '\n') {
+                escaped.append("\\n");
+            } else {
+                escaped.append(character);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static LongAdder[] newCounters() {
+        LongAdder[] counters = new LongAdder[Spot.values().length];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+}
@@ -0,0 +1,140 @@
+package com.parkinglot.registry;
+
+import com.parkinglot.ParkingVenue;
+import com.parkinglot.entity.ParkingReceipt;
+import com.parkinglot.entity.ParkingTicket;
+import com.parkinglot.enums.Spot;
+import com.parkinglot.enums.Venue;
+import com.parkinglot.exceptions.VenueNotFoundException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static java.lang.String.format;
+
+/**
+ * Owns a network of isolated venues keyed by id, spread over a fixed number of shards.
+ * <p>
+ * Every shard is a single worker thread that alone reads and writes its venues and region index, so
+ * none of that state needs locking. Operations on a venue run on its shard and complete the returned
+ * future there; cross-venue queries fan out to every shard and combine the partial results.
+ */
+public class VenueRegistry implements AutoCloseable {
+
+    private final Shard[] shards;
+
+    public VenueRegistry(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be positive: " + shardCount);
+        }
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i);
+        }
+    }
+
+    public VenueRegistry() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public CompletableFuture<Void> register(String venueId, String region, Venue venue, Map<Spot, Integer> spots) {
+        Shard shard = shardOf(venueId);
+        return CompletableFuture.runAsync(() -> shard.register(venueId, region,
+                ParkingVenue.createParkingVenue(venue, spots)), shard.executor);
+    }
+
+    public CompletableFuture<ParkingTicket> park(String venueId, Spot spot, LocalDateTime entryDateTime) {
+        Shard shard = shardOf(venueId);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return shard.venue(venueId).park(spot, entryDateTime);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, shard.executor);
+    }
+
+    public CompletableFuture<ParkingReceipt> unpark(String venueId, Spot spot, ParkingTicket ticket,
+                                                    LocalDateTime exitDateTime) {
+        Shard shard = shardOf(venueId);
+        return CompletableFuture.supplyAsync(() -> shard.venue(venueId).unpark(spot, ticket, exitDateTime),
+                shard.executor);
+    }
+
+    /**
+     * @return the number of free spots of the given type over every venue in {@code region}
+     */
+    public CompletableFuture<Long> getFreeSpots(String region, Spot spot) {
+        List<CompletableFuture<Long>> partials = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            partials.add(CompletableFuture.supplyAsync(() -> shard.freeSpots(region, spot), shard.executor));
+        }
+        return CompletableFuture.allOf(partials.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> partials.stream().mapToLong(CompletableFuture::join).sum());
+    }
+
+    public CompletableFuture<Integer> size() {
+        List<CompletableFuture<Integer>> partials = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            partials.add(CompletableFuture.supplyAsync(shard.venues::size, shard.executor));
+        }
+        return CompletableFuture.allOf(partials.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> partials.stream().mapToInt(CompletableFuture::join).sum());
+    }
+
+    @Override
+    public void close() {
+        for (Shard shard : shards) {
+            shard.executor.shutdown();
+        }
+    }
+
+    private Shard shardOf(String venueId) {
+        return shards[Math.floorMod(venueId.hashCode(), shards.length)];
+    }
+
+    private static final class Shard {
+
+        private final ExecutorService executor;
+        private final Map<String, ParkingVenue> venues = new HashMap<>();
+        private final Map<String, List<ParkingVenue>> regions = new HashMap<>();
+
+        Shard(int index) {
+            executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "venue-shard-" + index);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        void register(String venueId, String region, ParkingVenue venue) {
+            if (venues.putIfAbsent(venueId, venue) != null) {
+                throw new IllegalArgumentException(format("Venue [%s] is already registered", venueId));
+            }
+            regions.computeIfAbsent(region, key -> new ArrayList<>()).add(venue);
+        }
+
+        ParkingVenue venue(String venueId) {
+            ParkingVenue venue = venues.get(venueId);
+            if (venue == null) {
+                throw new VenueNotFoundException(format("Venue [%s] is not registered", venueId));
+            }
+            return venue;
+        }
+
+        long freeSpots(String region, Spot spot) {
+            long free = 0;
+            for (ParkingVenue venue : regions.getOrDefault(region, List.of())) {
+                free += venue.getFreeSpots(spot);
+            }
+            return free;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.parkinglot.replay;
+
+import com.parkinglot.enums.Spot;
+import com.parkinglot.enums.Venue;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static java.lang.String.format;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * File of completed parking sessions for offline analysis.
+ * <p>
+ * An 8 byte header (magic, version) is followed by fixed-size rows, little endian:
+ * <pre>
+ *  0  long  entryEpochSecond
+ *  8  int   durationSeconds  exit minus entry
+ * 12  int   kind             venue ordinal &lt;&lt; 8 | spot ordinal
+ * </pre>
+ */
+public final class SessionFile {
+
+    static final int MAGIC = 0x504C5345;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    static final int ROW_SIZE = 16;
+
+    private SessionFile() {
+    }
+
+    public static Writer create(Path path) {
+        try {
+            return new Writer(path, FileChannel.open(path, CREATE, TRUNCATE_EXISTING, WRITE));
+        } catch (IOException e) {
+            throw new UncheckedIOException(format("Cannot create session file [%s]", path), e);
+        }
+    }
+
+    /**
+     * Calls {@code visitor} with every session in the file, in file order.
+     */
+    public static void read(Path path, Visitor visitor) {
+        Venue[] venues = Venue.values();
+        Spot[] spots = Spot.values();
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            long rows = checkHeader(path, channel);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(ROW_SIZE * 4096).order(ByteOrder.LITTLE_ENDIAN);
+            long position = HEADER_SIZE;
+            for (long row = 0; row < rows; ) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), (rows - row) * ROW_SIZE));
+                while (buffer.hasRemaining()) {
+                    int read = channel.read(buffer, position);
+                    if (read < 0) {
+                        throw new IllegalStateException(format("Session file [%s] is truncated", path));
+                    }
+                    position += read;
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    long entryEpochSecond = buffer.getLong();
+                    int duration = buffer.getInt();
+                    int kind = buffer.getInt();
+                    int venue = kind >>> 8;
+                    int spot = kind & 0xFF;
+                    if (venue >= venues.length || spot >= spots.length) {
+                        throw new IllegalStateException(format("Session file [%s] has an unknown kind [%d] in row [%d]",
+                                path, kind, row));
+                    }
+                    visitor.onSession(venues[venue], spots[spot], entryEpochSecond, entryEpochSecond + duration);
+                    row++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(format("Cannot read session file [%s]", path), e);
+        }
+    }
+
+    /**
+     * @return the number of rows in the file
+     */
+    static long checkHeader(Path path, FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        channel.read(header, 0);
+        long body = channel.size() - HEADER_SIZE;
+        if (header.hasRemaining() || header.getInt(0) != MAGIC || header.getInt(4) != VERSION
+                || body % ROW_SIZE != 0) {
+            throw new IllegalStateException(format("[%s] is not a session file", path));
+        }
+        return body / ROW_SIZE;
+    }
+
+    static int kind(Venue venue, Spot spot) {
+        return venue.ordinal() << 8 | spot.ordinal();
+    }
+
+    public static final class Writer implements Closeable {
+
+        private final Path path;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(ROW_SIZE * 4096).order(ByteOrder.LITTLE_ENDIAN);
+
+        private Writer(Path path, FileChannel channel) {
+            this.path = path;
+            this.channel = channel;
+            buffer.putInt(MAGIC).putInt(VERSION);
+        }
+
+        public void add(Venue venue, Spot spot, long entryEpochSecond, long exitEpochSecond) {
+            long duration = exitEpochSecond - entryEpochSecond;
+            if (duration < 0 || duration > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(format("Session from [%d] to [%d] is out of range",
+                        entryEpochSecond, exitEpochSecond));
+            }
+            if (buffer.remaining() < ROW_SIZE) {
+                flush();
+            }
+            buffer.putLong(entryEpochSecond).putInt((int) duration).putInt(kind(venue, spot));
+        }
+
+        @Override
+        public void close() {
+            try (channel) {
+                flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(format("Cannot close session file [%s]", path), e);
+            }
+        }
+
+        private void flush() {
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(format("Cannot write session file [%s]", path), e);
+            }
+            buffer.clear();
+        }
+    }
+
+    public interface Visitor {
+
+        void onSession(Venue venue, Spot spot, long entryEpochSecond, long exitEpochSecond);
+    }
+}
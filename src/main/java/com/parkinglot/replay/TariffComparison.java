@@ -0,0 +1,62 @@
+package com.parkinglot.replay;
+
+import com.parkinglot.enums.Spot;
+import com.parkinglot.enums.Venue;
+
+import static java.lang.String.format;
+
+/**
+ * Revenue of the same sessions under the current and a proposed {@code Tariff}, per venue and spot type.
+ */
+public class TariffComparison {
+
+    private static final int SPOTS = Spot.values().length;
+
+    private final long[] sessions;
+    private final long[] currentRevenue;
+    private final long[] proposedRevenue;
+
+    TariffComparison(long[] sessions, long[] currentRevenue, long[] proposedRevenue) {
+        this.sessions = sessions;
+        this.currentRevenue = currentRevenue;
+        this.proposedRevenue = proposedRevenue;
+    }
+
+    public long getSessions(Venue venue, Spot spot) {
+        return sessions[index(venue, spot)];
+    }
+
+    public long getCurrentRevenue(Venue venue, Spot spot) {
+        return currentRevenue[index(venue, spot)];
+    }
+
+    public long getProposedRevenue(Venue venue, Spot spot) {
+        return proposedRevenue[index(venue, spot)];
+    }
+
+    public long getRevenueDelta(Venue venue, Spot spot) {
+        return getProposedRevenue(venue, spot) - getCurrentRevenue(venue, spot);
+    }
+
+    /**
+     * One line per venue and spot type with sessions.
+     */
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        for (Venue venue : Venue.values()) {
+            for (Spot spot : Spot.values()) {
+                if (getSessions(venue, spot) > 0) {
+                    out.append(format("%s %s sessions=%d current=%d proposed=%d delta=%+d%n", venue, spot,
+                            getSessions(venue, spot), getCurrentRevenue(venue, spot), getProposedRevenue(venue, spot),
+                            getRevenueDelta(venue, spot)));
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    static int index(Venue venue, Spot spot) {
+        return venue.ordinal() * SPOTS + spot.ordinal();
+    }
+}
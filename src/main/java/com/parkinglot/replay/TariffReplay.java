@@ -0,0 +1,165 @@
+package com.parkinglot.replay;
+
+import com.parkinglot.enums.Spot;
+import com.parkinglot.enums.Venue;
+import com.parkinglot.exceptions.SpotNotFoundException;
+import com.parkinglot.tariff.SpotTariff;
+import com.parkinglot.tariff.Tariff;
+import com.parkinglot.tariff.TariffEngine;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import static java.lang.String.format;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Prices every session of a {@link SessionFile} under two tariffs side by side, for what-if analysis of
+ * rate changes.
+ * <p>
+ * The file is memory-mapped in regions of up to 1 GiB and each region is split into fork/join tasks
+ * over row ranges. A row is read straight from the mapping and priced from the compiled tariff tables,
+ * so nothing is allocated per row. Fees follow {@code ParkingVenue.unpark}: every started hour counts.
+ */
+public final class TariffReplay {
+
+    private static final int VENUES = Venue.values().length;
+    private static final int SPOTS = Spot.values().length;
+    private static final int KINDS = VENUES * SPOTS;
+    private static final int LEAF_ROWS = 1 << 16;
+    private static final long REGION_ROWS = (1L << 30) / SessionFile.ROW_SIZE;
+
+    private TariffReplay() {
+    }
+
+    /**
+     * Usage: {@code TariffReplay <session file> <proposed tariff> [<current tariff>]}. Without a current
+     * tariff file the bundled {@code tariffs.properties} is used.
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: TariffReplay <session file> <proposed tariff> [<current tariff>]");
+            System.exit(2);
+        }
+        Tariff proposed = Tariff.load(Paths.get(args[1]));
+        Tariff current = args.length > 2 ? Tariff.load(Paths.get(args[2])) : TariffEngine.getDefault().getTariff();
+        System.out.print(compare(Paths.get(args[0]), current, proposed));
+    }
+
+    public static TariffComparison compare(Path sessionFile, Tariff current, Tariff proposed) {
+        return compare(sessionFile, current, proposed, ForkJoinPool.commonPool());
+    }
+
+    public static TariffComparison compare(Path sessionFile, Tariff current, Tariff proposed, ForkJoinPool pool) {
+        SpotTariff[] currentTariffs = resolve(current);
+        SpotTariff[] proposedTariffs = resolve(proposed);
+        long[] totals = new long[3 * KINDS];
+        try (FileChannel channel = FileChannel.open(sessionFile, READ)) {
+            long rows = SessionFile.checkHeader(sessionFile, channel);
+            for (long firstRow = 0; firstRow < rows; firstRow += REGION_ROWS) {
+                int regionRows = (int) Math.min(REGION_ROWS, rows - firstRow);
+                ByteBuffer region = channel.map(READ_ONLY, SessionFile.HEADER_SIZE + firstRow * SessionFile.ROW_SIZE,
+                        (long) regionRows * SessionFile.ROW_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                long[] partial = pool.invoke(new ReplayTask(region, 0, regionRows, currentTariffs, proposedTariffs));
+                for (int i = 0; i < totals.length; i++) {
+                    totals[i] += partial[i];
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(format("Cannot read session file [%s]", sessionFile), e);
+        }
+        long[] sessions = new long[KINDS];
+        long[] currentRevenue = new long[KINDS];
+        long[] proposedRevenue = new long[KINDS];
+        System.arraycopy(totals, 0, sessions, 0, KINDS);
+        System.arraycopy(totals, KINDS, currentRevenue, 0, KINDS);
+        System.arraycopy(totals, 2 * KINDS, proposedRevenue, 0, KINDS);
+        return new TariffComparison(sessions, currentRevenue, proposedRevenue);
+    }
+
+    // Missing combinations stay null and only fail if a session actually needs them.
+    private static SpotTariff[] resolve(Tariff tariff) {
+        SpotTariff[] spotTariffs = new SpotTariff[KINDS];
+        for (Venue venue : Venue.values()) {
+            for (Spot spot : Spot.values()) {
+                try {
+                    spotTariffs[TariffComparison.index(venue, spot)] = tariff.getSpotTariff(venue, spot);
+                } catch (SpotNotFoundException e) {
+                    // left unpriced
+                }
+            }
+        }
+        return spotTariffs;
+    }
+
+    /**
+     * Sums one range of rows into {@code [sessions..., current revenue..., proposed revenue...]} by kind.
+     */
+    private static final class ReplayTask extends RecursiveTask<long[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ByteBuffer region;
+        private final int fromRow;
+        private final int toRow;
+        private final SpotTariff[] currentTariffs;
+        private final SpotTariff[] proposedTariffs;
+
+        ReplayTask(ByteBuffer region, int fromRow, int toRow, SpotTariff[] currentTariffs, SpotTariff[] proposedTariffs) {
+            this.region = region;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.currentTariffs = currentTariffs;
+            this.proposedTariffs = proposedTariffs;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (toRow - fromRow <= LEAF_ROWS) {
+                return replay();
+            }
+            int middle = (fromRow + toRow) >>> 1;
+            ReplayTask left = new ReplayTask(region, fromRow, middle, currentTariffs, proposedTariffs);
+            left.fork();
+            long[] totals = new ReplayTask(region, middle, toRow, currentTariffs, proposedTariffs).compute();
+            long[] leftTotals = left.join();
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += leftTotals[i];
+            }
+            return totals;
+        }
+
+        private long[] replay() {
+            long[] totals = new long[3 * KINDS];
+            for (int row = fromRow; row < toRow; row++) {
+                int offset = row * SessionFile.ROW_SIZE;
+                long hours = region.getInt(offset + 8) / 3600 + 1;
+                int kind = region.getInt(offset + 12);
+                int venue = kind >>> 8;
+                int spot = kind & 0xFF;
+                if (venue >= VENUES || spot >= SPOTS) {
+                    throw new IllegalStateException(format("Unknown session kind [%d]", kind));
+                }
+                int index = venue * SPOTS + spot;
+                SpotTariff current = currentTariffs[index];
+                SpotTariff proposed = proposedTariffs[index];
+                if (current == null || proposed == null) {
+                    throw new SpotNotFoundException(format("Spot type [%s] is not supported in the venue [%s]",
+                            Spot.values()[spot], Venue.values()[venue]));
+                }
+                totals[index]++;
+                totals[KINDS + index] += current.fee(hours);
+                totals[2 * KINDS + index] += proposed.fee(hours);
+            }
+            return totals;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.parkinglot.reservation;
+
+import com.parkinglot.enums.ReservationState;
+import com.parkinglot.enums.Spot;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A spot held for a pre-booked customer until {@link #getExpiresAtEpochSecond()}. The state leaves
+ * {@link ReservationState#HELD} exactly once, by compare-and-set, so a claim, a cancel and an expiry
+ * racing for the same hold agree on a single winner.
+ */
+public final class Reservation {
+
+    private static final ReservationState[] STATES = ReservationState.values();
+    private static final VarHandle STATE;
+
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(Reservation.class, "state", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final ReservationBook book;
+    private final long reservationNumber;
+    private final Spot spot;
+    private final int spotNumber;
+    private final long expiresAtEpochSecond;
+    private volatile int state;
+
+    // Owned by the timing wheel and only touched while it advances.
+    Reservation next;
+    long remainingRounds;
+
+    Reservation(ReservationBook book, long reservationNumber, Spot spot, int spotNumber, long expiresAtEpochSecond) {
+        this.book = book;
+        this.reservationNumber = reservationNumber;
+        this.spot = spot;
+        this.spotNumber = spotNumber;
+        this.expiresAtEpochSecond = expiresAtEpochSecond;
+    }
+
+    boolean transition(ReservationState to) {
+        return STATE.compareAndSet(this, ReservationState.HELD.ordinal(), to.ordinal());
+    }
+
+    ReservationBook getBook() {
+        return book;
+    }
+
+    public long getReservationNumber() {
+        return reservationNumber;
+    }
+
+    public Spot getSpot() {
+        return spot;
+    }
+
+    public int getSpotNumber() {
+        return spotNumber;
+    }
+
+    public long getExpiresAtEpochSecond() {
+        return expiresAtEpochSecond;
+    }
+
+    public ReservationState getState() {
+        return STATES[state];
+    }
+}
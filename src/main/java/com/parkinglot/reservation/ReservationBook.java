@@ -0,0 +1,84 @@
+package com.parkinglot.reservation;
+
+import com.parkinglot.enums.ReservationState;
+import com.parkinglot.enums.Spot;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import static java.lang.String.format;
+
+/**
+ * Outstanding reservations of one venue and their expiry.
+ * <p>
+ * Holding, claiming and cancelling never block. Expiry runs whenever a caller advances the clock; only
+ * one caller advances the wheel at a time, and the others skip it rather than wait.
+ */
+public class ReservationBook {
+
+    /**
+     * One turn of the wheel is a little over an hour of one-second ticks.
+     */
+    public static final int DEFAULT_WHEEL_SIZE = 4096;
+
+    private final TimingWheel wheel;
+    private final ReentrantLock advanceLock = new ReentrantLock();
+
+    public ReservationBook(long startEpochSecond) {
+        this(DEFAULT_WHEEL_SIZE, startEpochSecond);
+    }
+
+    public ReservationBook(int wheelSize, long startEpochSecond) {
+        this.wheel = new TimingWheel(wheelSize, startEpochSecond);
+    }
+
+    /**
+     * Records a hold on a spot the caller has already taken out of its pool.
+     */
+    public Reservation hold(long reservationNumber, Spot spot, int spotNumber, long expiresAtEpochSecond) {
+        Reservation reservation = new Reservation(this, reservationNumber, spot, spotNumber, expiresAtEpochSecond);
+        wheel.schedule(reservation);
+        return reservation;
+    }
+
+    /**
+     * @return {@code true} if the reservation was still held and not yet due, and is now claimed
+     */
+    public boolean claim(Reservation reservation, long nowEpochSecond) {
+        checkOwner(reservation);
+        return nowEpochSecond < reservation.getExpiresAtEpochSecond()
+                && reservation.transition(ReservationState.CLAIMED);
+    }
+
+    /**
+     * @return {@code true} if the reservation was still held and is now cancelled
+     */
+    public boolean cancel(Reservation reservation) {
+        checkOwner(reservation);
+        return reservation.transition(ReservationState.CANCELLED);
+    }
+
+    /**
+     * Expires every hold due by {@code nowEpochSecond} and hands it to {@code onExpiry} to free its
+     * spot. Returns at once if another thread is already expiring holds.
+     *
+     * @return the number of holds expired by this call
+     */
+    public int expire(long nowEpochSecond, Consumer<Reservation> onExpiry) {
+        if (!advanceLock.tryLock()) {
+            return 0;
+        }
+        try {
+            return wheel.advanceTo(nowEpochSecond, onExpiry);
+        } finally {
+            advanceLock.unlock();
+        }
+    }
+
+    private void checkOwner(Reservation reservation) {
+        if (reservation.getBook() != this) {
+            throw new IllegalArgumentException(format("Reservation [%d] belongs to another venue",
+                    reservation.getReservationNumber()));
+        }
+    }
+}
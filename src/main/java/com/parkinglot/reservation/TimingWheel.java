@@ -0,0 +1,110 @@
+package com.parkinglot.reservation;
+
+import com.parkinglot.enums.ReservationState;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel of reservation deadlines with one-second ticks.
+ * <p>
+ * New holds are queued lock-free and moved into their bucket by the thread advancing the wheel, which
+ * is the only one to touch the buckets. A tick visits one bucket, so its cost depends on the holds that
+ * hash there, not on the number outstanding. Holds that are claimed or cancelled stay linked until their
+ * bucket next comes round and are dropped then. Holds more than a full turn away carry a round count.
+ */
+final class TimingWheel {
+
+    private final Reservation[] buckets;
+    private final int mask;
+    private final Queue<Reservation> inbox = new ConcurrentLinkedQueue<>();
+    private long currentTick;
+    private int size;
+
+    TimingWheel(int wheelSize, long startEpochSecond) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two: " + wheelSize);
+        }
+        this.buckets = new Reservation[wheelSize];
+        this.mask = wheelSize - 1;
+        this.currentTick = startEpochSecond;
+    }
+
+    void schedule(Reservation reservation) {
+        inbox.add(reservation);
+    }
+
+    /**
+     * Moves the wheel up to {@code epochSecond} and expires every hold due by then. Not thread-safe.
+     *
+     * @return the number of holds expired
+     */
+    int advanceTo(long epochSecond, Consumer<Reservation> onExpiry) {
+        int expired = 0;
+        while (currentTick < epochSecond) {
+            currentTick++;
+            expired += transferInbox(onExpiry);
+            if (size == 0) {
+                // Nothing left to visit: jump over idle time instead of walking it.
+                currentTick = Math.max(currentTick, epochSecond);
+                break;
+            }
+            expired += expireBucket((int) (currentTick & mask), onExpiry);
+        }
+        return expired;
+    }
+
+    private int transferInbox(Consumer<Reservation> onExpiry) {
+        int expired = 0;
+        Reservation reservation;
+        while ((reservation = inbox.poll()) != null) {
+            long ticks = reservation.getExpiresAtEpochSecond() - currentTick;
+            if (ticks <= 0) {
+                expired += expire(reservation, onExpiry);
+                continue;
+            }
+            int bucket = (int) (reservation.getExpiresAtEpochSecond() & mask);
+            // The bucket of the current tick is visited right after the transfer.
+            reservation.remainingRounds = ticks / buckets.length;
+            reservation.next = buckets[bucket];
+            buckets[bucket] = reservation;
+            size++;
+        }
+        return expired;
+    }
+
+    private int expireBucket(int bucket, Consumer<Reservation> onExpiry) {
+        int expired = 0;
+        Reservation previous = null;
+        Reservation reservation = buckets[bucket];
+        while (reservation != null) {
+            Reservation next = reservation.next;
+            boolean due = reservation.remainingRounds-- <= 0;
+            if (due || reservation.getState() != ReservationState.HELD) {
+                if (previous == null) {
+                    buckets[bucket] = next;
+                } else {
+                    previous.next = next;
+                }
+                reservation.next = null;
+                size--;
+                if (due) {
+                    expired += expire(reservation, onExpiry);
+                }
+            } else {
+                previous = reservation;
+            }
+            reservation = next;
+        }
+        return expired;
+    }
+
+    private static int expire(Reservation reservation, Consumer<Reservation> onExpiry) {
+        if (!reservation.transition(ReservationState.EXPIRED)) {
+            return 0;
+        }
+        onExpiry.accept(reservation);
+        return 1;
+    }
+}
@@ -0,0 +1,168 @@
+package com.parkinglot.rollup;
+
+import com.parkinglot.enums.Spot;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Rolling per-hour revenue, exit count, dwell time histogram and peak occupancy of one venue, per
+ * {@link Spot}, over the last {@value #HOURS} hours.
+ * <p>
+ * Every spot type has a fixed ring of hour slots in one primitive array. A slot is tagged with the
+ * hour it holds; the first event of a new hour claims the slot by compare-and-set on the tag and
+ * clears it, writers then add to it without locks. Readers never block writers: they read the tag,
+ * then the slot, then the tag again, and skip a slot that was recycled in between. Events are
+ * expected within a few hours of real time; one older than the ring is dropped.
+ */
+public class HourlyRollup {
+
+    public static final int HOURS = 30 * 24;
+
+    static final long[] DWELL_UPPER_BOUND_HOURS = {1, 2, 4, 8, 12, 24, 48, 168};
+
+    private static final int TAG = 0;
+    private static final int REVENUE = 1;
+    private static final int EXITS = 2;
+    private static final int PEAK_OCCUPANCY = 3;
+    private static final int DWELL = 4;
+    private static final int DWELL_BUCKETS = DWELL_UPPER_BOUND_HOURS.length + 1;
+    private static final int STRIDE = DWELL + DWELL_BUCKETS;
+
+    private static final long RECYCLING = Long.MIN_VALUE;
+    private static final long NO_HOUR = Long.MIN_VALUE + 1;
+    private static final int SECONDS_PER_HOUR = 3600;
+
+    private final AtomicLongArray[] slots = new AtomicLongArray[Spot.values().length];
+
+    public HourlyRollup(Set<Spot> spots) {
+        for (Spot spot : spots) {
+            AtomicLongArray ring = new AtomicLongArray(HOURS * STRIDE);
+            for (int hour = 0; hour < HOURS; hour++) {
+                ring.set(hour * STRIDE + TAG, NO_HOUR);
+            }
+            slots[spot.ordinal()] = ring;
+        }
+    }
+
+    /**
+     * Notes the occupancy of a spot type after a park or an unpark.
+     */
+    public void recordOccupancy(Spot spot, long epochSecond, long occupied) {
+        AtomicLongArray ring = slots[spot.ordinal()];
+        int base = slotFor(ring, Math.floorDiv(epochSecond, SECONDS_PER_HOUR));
+        if (base >= 0) {
+            raisePeak(ring, base, occupied);
+        }
+    }
+
+    /**
+     * Books an exit in the hour of {@code exitEpochSecond}.
+     */
+    public void recordExit(Spot spot, long exitEpochSecond, long dwellSeconds, long fee, long occupied) {
+        AtomicLongArray ring = slots[spot.ordinal()];
+        int base = slotFor(ring, Math.floorDiv(exitEpochSecond, SECONDS_PER_HOUR));
+        if (base < 0) {
+            return;
+        }
+        ring.addAndGet(base + REVENUE, fee);
+        ring.incrementAndGet(base + EXITS);
+        ring.incrementAndGet(base + DWELL + dwellBucket(dwellSeconds));
+        raisePeak(ring, base, occupied);
+    }
+
+    /**
+     * @return totals of one spot type over the hours from {@code fromEpochSecond} up to and excluding
+     * {@code toEpochSecond}, as far as they are still in the ring
+     */
+    public RollupTotals getTotals(Spot spot, long fromEpochSecond, long toEpochSecond) {
+        long[] totals = new long[STRIDE];
+        accumulate(spot, fromEpochSecond, toEpochSecond, totals);
+        return toRollupTotals(totals);
+    }
+
+    /**
+     * @return totals over every spot type; the peak occupancy is the highest of any single spot type
+     */
+    public RollupTotals getTotals(long fromEpochSecond, long toEpochSecond) {
+        long[] totals = new long[STRIDE];
+        for (Spot spot : Spot.values()) {
+            accumulate(spot, fromEpochSecond, toEpochSecond, totals);
+        }
+        return toRollupTotals(totals);
+    }
+
+    private void accumulate(Spot spot, long fromEpochSecond, long toEpochSecond, long[] totals) {
+        AtomicLongArray ring = slots[spot.ordinal()];
+        if (ring == null) {
+            return;
+        }
+        long toHour = Math.floorDiv(toEpochSecond - 1, SECONDS_PER_HOUR);
+        long fromHour = Math.max(Math.floorDiv(fromEpochSecond, SECONDS_PER_HOUR), toHour - HOURS + 1);
+        long[] slot = new long[STRIDE];
+        for (long hour = fromHour; hour <= toHour; hour++) {
+            int base = Math.floorMod(hour, HOURS) * STRIDE;
+            if (ring.get(base + TAG) != hour) {
+                continue;
+            }
+            for (int field = REVENUE; field < STRIDE; field++) {
+                slot[field] = ring.get(base + field);
+            }
+            if (ring.get(base + TAG) != hour) {
+                continue;
+            }
+            for (int field = REVENUE; field < STRIDE; field++) {
+                totals[field] = field == PEAK_OCCUPANCY ? Math.max(totals[field], slot[field]) : totals[field] + slot[field];
+            }
+        }
+    }
+
+    private static RollupTotals toRollupTotals(long[] totals) {
+        long[] dwellHistogram = new long[DWELL_BUCKETS];
+        System.arraycopy(totals, DWELL, dwellHistogram, 0, DWELL_BUCKETS);
+        return new RollupTotals(totals[REVENUE], totals[EXITS], dwellHistogram, totals[PEAK_OCCUPANCY]);
+    }
+
+    /**
+     * @return the offset of the slot holding {@code hour}, recycling it if it still holds an older hour,
+     * or {@code -1} if the hour has already left the ring
+     */
+    private static int slotFor(AtomicLongArray ring, long hour) {
+        int base = Math.floorMod(hour, HOURS) * STRIDE;
+        while (true) {
+            long tag = ring.get(base + TAG);
+            if (tag == hour) {
+                return base;
+            }
+            if (tag == RECYCLING) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (tag > hour) {
+                return -1;
+            }
+            if (ring.compareAndSet(base + TAG, tag, RECYCLING)) {
+                for (int field = REVENUE; field < STRIDE; field++) {
+                    ring.set(base + field, 0);
+                }
+                ring.set(base + TAG, hour);
+                return base;
+            }
+        }
+    }
+
+    private static void raisePeak(AtomicLongArray ring, int base, long occupied) {
+        long peak;
+        do {
+            peak = ring.get(base + PEAK_OCCUPANCY);
+        } while (occupied > peak && !ring.compareAndSet(base + PEAK_OCCUPANCY, peak, occupied));
+    }
+
+    private static int dwellBucket(long dwellSeconds) {
+        int bucket = 0;
+        while (bucket < DWELL_UPPER_BOUND_HOURS.length && dwellSeconds >= DWELL_UPPER_BOUND_HOURS[bucket] * SECONDS_PER_HOUR) {
+            bucket++;
+        }
+        return bucket;
+    }
+}
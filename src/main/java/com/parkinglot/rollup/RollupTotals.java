@@ -0,0 +1,15 @@
+package com.parkinglot.rollup;
+
+import lombok.Value;
+
+/**
+ * Aggregates of a range of hours. The dwell histogram counts exits by length of stay, split at 1, 2,
+ * 4, 8, 12, 24, 48 and 168 hours; its last entry counts the stays of a week or more.
+ */
+@Value
+public class RollupTotals {
+    long revenue;
+    long exits;
+    long[] dwellHistogram;
+    long peakOccupancy;
+}
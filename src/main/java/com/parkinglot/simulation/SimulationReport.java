@@ -0,0 +1,50 @@
+package com.parkinglot.simulation;
+
+import com.parkinglot.enums.Venue;
+import com.parkinglot.metrics.HistogramSnapshot;
+import lombok.Value;
+
+import static java.lang.String.format;
+
+/**
+ * Outcome of one {@link Simulator} run. Counts and revenue are the same for every run of the same trace
+ * and capacity; throughput and latencies are measured.
+ */
+@Value
+public class SimulationReport {
+    Venue venue;
+    int threads;
+    long vehicles;
+    long parks;
+    long rejections;
+    long unparks;
+    long revenue;
+    long elapsedNanos;
+    HistogramSnapshot parkLatency;
+    HistogramSnapshot unparkLatency;
+
+    /**
+     * @return parks and unparks per second of time spent in gate operations
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : (parks + unparks) * 1e9 / elapsedNanos;
+    }
+
+    public double getRejectionRate() {
+        return vehicles == 0 ? 0 : (double) rejections / vehicles;
+    }
+
+    @Override
+    public String toString() {
+        return format("%s threads=%d vehicles=%d parks=%d unparks=%d rejections=%d (%.2f%%) revenue=%d%n",
+                venue, threads, vehicles, parks, unparks, rejections, getRejectionRate() * 100, revenue)
+                + format("throughput=%.0f ops/s%n", getThroughput())
+                + latency("park", parkLatency)
+                + latency("unpark", unparkLatency);
+    }
+
+    private static String latency(String operation, HistogramSnapshot histogram) {
+        return format("%s latency ns p50=%d p99=%d p999=%d%n", operation, histogram.getValueAtQuantile(0.5),
+                histogram.getValueAtQuantile(0.99), histogram.getValueAtQuantile(0.999));
+    }
+}
@@ -0,0 +1,201 @@
+package com.parkinglot.simulation;
+
+import com.parkinglot.enums.Spot;
+import com.parkinglot.enums.Venue;
+import com.parkinglot.replay.SessionFile;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static java.lang.String.format;
+import static java.time.ZoneOffset.UTC;
+
+/**
+ * Immutable list of vehicle visits to one venue, ordered by arrival. Times are whole seconds from the
+ * start of the trace. Generated traces depend only on their arguments and seed.
+ */
+public final class SimulationTrace {
+
+    private static final long SHORT_STAY_SECONDS = Duration.ofHours(3).toSeconds();
+    private static final long DAY_SECONDS = Duration.ofDays(1).toSeconds();
+
+    private final Venue venue;
+    private final LocalDateTime start;
+    private final long[] arrivals;
+    private final int[] stays;
+    private final Spot[] spots;
+
+    private SimulationTrace(Venue venue, LocalDateTime start, long[] arrivals, int[] stays, Spot[] spots) {
+        this.venue = venue;
+        this.start = start;
+        this.arrivals = arrivals;
+        this.stays = stays;
+        this.spots = spots;
+    }
+
+    /**
+     * Independent Poisson arrivals per spot type with exponentially distributed stays, e.g. a mall.
+     */
+    public static SimulationTrace poisson(Venue venue, LocalDateTime start, Map<Spot, Double> arrivalsPerMinute,
+                                          Duration meanStay, Duration length, long seed) {
+        Builder trace = new Builder(venue, start);
+        SplittableRandom random = new SplittableRandom(seed);
+        for (Spot spot : Spot.values()) {
+            double perSecond = arrivalsPerMinute.getOrDefault(spot, 0.0) / 60;
+            if (perSecond <= 0) {
+                continue;
+            }
+            for (double time = exponential(random, 1 / perSecond); time < length.toSeconds();
+                 time += exponential(random, 1 / perSecond)) {
+                trace.add((long) time, (long) exponential(random, meanStay.toSeconds()), spot);
+            }
+        }
+        return trace.build();
+    }
+
+    /**
+     * An event crowd: {@code vehicles} arrive uniformly during {@code arrival}, the event runs for
+     * {@code event} and everybody leaves uniformly within {@code egress}, e.g. a stadium at the final whistle.
+     */
+    public static SimulationTrace eventEgress(Venue venue, LocalDateTime start, Map<Spot, Integer> vehicles,
+                                              Duration arrival, Duration event, Duration egress, long seed) {
+        Builder trace = new Builder(venue, start);
+        SplittableRandom random = new SplittableRandom(seed);
+        long end = arrival.toSeconds() + event.toSeconds();
+        for (Spot spot : Spot.values()) {
+            for (int i = vehicles.getOrDefault(spot, 0); i > 0; i--) {
+                long time = random.nextLong(Math.max(1, arrival.toSeconds()));
+                trace.add(time, end + random.nextLong(Math.max(1, egress.toSeconds())) - time, spot);
+            }
+        }
+        return trace.build();
+    }
+
+    /**
+     * Poisson arrivals where {@code longStayShare} of the vehicles stay one to fourteen days and the rest
+     * a few hours, e.g. an airport.
+     */
+    public static SimulationTrace longStayMix(Venue venue, LocalDateTime start, Map<Spot, Double> arrivalsPerMinute,
+                                              double longStayShare, Duration length, long seed) {
+        Builder trace = new Builder(venue, start);
+        SplittableRandom random = new SplittableRandom(seed);
+        for (Spot spot : Spot.values()) {
+            double perSecond = arrivalsPerMinute.getOrDefault(spot, 0.0) / 60;
+            if (perSecond <= 0) {
+                continue;
+            }
+            for (double time = exponential(random, 1 / perSecond); time < length.toSeconds();
+                 time += exponential(random, 1 / perSecond)) {
+                long stay = random.nextDouble() < longStayShare
+                        ? random.nextLong(DAY_SECONDS, 14 * DAY_SECONDS + 1)
+                        : (long) exponential(random, SHORT_STAY_SECONDS);
+                trace.add((long) time, stay, spot);
+            }
+        }
+        return trace.build();
+    }
+
+    /**
+     * Replays the sessions of {@code venue} recorded in a {@link SessionFile}; the trace starts at the
+     * earliest entry.
+     */
+    public static SimulationTrace load(Path sessionFile, Venue venue) {
+        long[] first = {Long.MAX_VALUE};
+        SessionFile.read(sessionFile, (sessionVenue, spot, entryEpochSecond, exitEpochSecond) -> {
+            if (sessionVenue == venue) {
+                first[0] = Math.min(first[0], entryEpochSecond);
+            }
+        });
+        if (first[0] == Long.MAX_VALUE) {
+            throw new IllegalArgumentException(format("Session file [%s] has no sessions of [%s]", sessionFile, venue));
+        }
+        Builder trace = new Builder(venue, LocalDateTime.ofEpochSecond(first[0], 0, UTC));
+        SessionFile.read(sessionFile, (sessionVenue, spot, entryEpochSecond, exitEpochSecond) -> {
+            if (sessionVenue == venue) {
+                trace.add(entryEpochSecond - first[0], exitEpochSecond - entryEpochSecond, spot);
+            }
+        });
+        return trace.build();
+    }
+
+    public Venue getVenue() {
+        return venue;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public int size() {
+        return arrivals.length;
+    }
+
+    public long getArrival(int vehicle) {
+        return arrivals[vehicle];
+    }
+
+    public int getStay(int vehicle) {
+        return stays[vehicle];
+    }
+
+    public Spot getSpot(int vehicle) {
+        return spots[vehicle];
+    }
+
+    private static double exponential(SplittableRandom random, double mean) {
+        return -mean * Math.log(1 - random.nextDouble());
+    }
+
+    private static final class Builder {
+
+        private final Venue venue;
+        private final LocalDateTime start;
+        private long[] arrivals = new long[1024];
+        private int[] stays = new int[1024];
+        private Spot[] spots = new Spot[1024];
+        private int size;
+
+        private Builder(Venue venue, LocalDateTime start) {
+            this.venue = venue;
+            this.start = start;
+        }
+
+        void add(long arrival, long stay, Spot spot) {
+            if (arrival < 0 || arrival > Integer.MAX_VALUE || stay < 0 || stay > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(format("Visit at [%d] for [%d] seconds is out of range", arrival, stay));
+            }
+            if (size == arrivals.length) {
+                arrivals = Arrays.copyOf(arrivals, size * 2);
+                stays = Arrays.copyOf(stays, size * 2);
+                spots = Arrays.copyOf(spots, size * 2);
+            }
+            arrivals[size] = arrival;
+            stays[size] = (int) stay;
+            spots[size] = spot;
+            size++;
+        }
+
+        // Sorts by arrival, ties in insertion order, so the result does not depend on the sort algorithm.
+        SimulationTrace build() {
+            long[] order = new long[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = arrivals[i] << 32 | i;
+            }
+            Arrays.sort(order);
+            long[] sortedArrivals = new long[size];
+            int[] sortedStays = new int[size];
+            Spot[] sortedSpots = new Spot[size];
+            for (int i = 0; i < size; i++) {
+                int vehicle = (int) order[i];
+                sortedArrivals[i] = arrivals[vehicle];
+                sortedStays[i] = stays[vehicle];
+                sortedSpots[i] = spots[vehicle];
+            }
+            return new SimulationTrace(venue, start, sortedArrivals, sortedStays, sortedSpots);
+        }
+    }
+}
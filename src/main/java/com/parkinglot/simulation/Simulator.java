@@ -0,0 +1,293 @@
+package com.parkinglot.simulation;
+
+import com.parkinglot.ParkingVenue;
+import com.parkinglot.entity.ParkingTicket;
+import com.parkinglot.enums.Spot;
+import com.parkinglot.enums.Venue;
+import com.parkinglot.exceptions.ParkingIsFullException;
+import com.parkinglot.metrics.LatencyHistogram;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.parkinglot.enums.Spot.BUS_OR_TRUCK;
+import static com.parkinglot.enums.Spot.CAR_OR_SUV;
+import static com.parkinglot.enums.Spot.MOTORCYCLE_OR_SCOOTER;
+import static java.lang.String.format;
+
+/**
+ * Drives a fresh venue through a {@link SimulationTrace} from several gate threads.
+ * <p>
+ * Simulated time advances in whole seconds. Each second with traffic is a departures phase followed
+ * by an arrivals phase, and within a phase the vehicles are split over the gate threads, which call
+ * {@code unpark} and {@code park} concurrently. Which arrivals are turned away is decided before the
+ * arrivals phase, in trace order, from the free spots left by the departures; so the parks, rejections
+ * and revenue of a run depend only on the trace and the capacity, never on thread timing.
+ */
+public class Simulator {
+
+    private final Map<Spot, Integer> capacity;
+    private final int threads;
+
+    public Simulator(Map<Spot, Integer> capacity, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException(format("Threads [%d] must be positive", threads));
+        }
+        this.capacity = capacity;
+        this.threads = threads;
+    }
+
+    public SimulationReport run(SimulationTrace trace) {
+        ExecutorService gates = Executors.newFixedThreadPool(threads);
+        try {
+            return new Run(trace, gates).execute();
+        } finally {
+            gates.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs a built-in scenario: {@code stadium-egress}, {@code mall} or {@code airport}, or replays a
+     * session file with {@code file <path> <venue>}. Optional trailing arguments are the seed and the
+     * number of gate threads.
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: Simulator <stadium-egress|mall|airport> [seed] [threads]");
+            System.err.println("       Simulator file <session file> <venue> [threads]");
+            System.exit(2);
+        }
+        LocalDateTime start = LocalDateTime.of(2022, 6, 1, 10, 0, 0);
+        SimulationTrace trace;
+        Map<Spot, Integer> capacity;
+        int next = 1;
+        switch (args[0]) {
+            case "stadium-egress": {
+                long seed = args.length > next ? Long.parseLong(args[next++]) : 1;
+                capacity = Map.of(MOTORCYCLE_OR_SCOOTER, 5_000, CAR_OR_SUV, 30_000);
+                trace = SimulationTrace.eventEgress(Venue.STADIUM, start, Map.of(MOTORCYCLE_OR_SCOOTER, 5_000,
+                                CAR_OR_SUV, 30_000), Duration.ofHours(2), Duration.ofHours(2), Duration.ofMinutes(20), seed);
+                break;
+            }
+            case "mall": {
+                long seed = args.length > next ? Long.parseLong(args[next++]) : 1;
+                capacity = Map.of(MOTORCYCLE_OR_SCOOTER, 500, CAR_OR_SUV, 2_000, BUS_OR_TRUCK, 50);
+                trace = SimulationTrace.poisson(Venue.MALL, start, Map.of(MOTORCYCLE_OR_SCOOTER, 6.0, CAR_OR_SUV, 25.0,
+                        BUS_OR_TRUCK, 0.5), Duration.ofMinutes(90), Duration.ofHours(12), seed);
+                break;
+            }
+            case "airport": {
+                long seed = args.length > next ? Long.parseLong(args[next++]) : 1;
+                capacity = Map.of(MOTORCYCLE_OR_SCOOTER, 1_000, CAR_OR_SUV, 20_000);
+                trace = SimulationTrace.longStayMix(Venue.AIRPORT, start, Map.of(MOTORCYCLE_OR_SCOOTER, 0.2,
+                        CAR_OR_SUV, 4.0), 0.3, Duration.ofDays(14), seed);
+                break;
+            }
+            case "file": {
+                Venue venue = Venue.valueOf(args[2]);
+                trace = SimulationTrace.load(Paths.get(args[1]), venue);
+                // Room for every recorded session, so the replay measures the gates rather than turning vehicles away.
+                capacity = new EnumMap<>(Spot.class);
+                for (int vehicle = 0; vehicle < trace.size(); vehicle++) {
+                    capacity.merge(trace.getSpot(vehicle), 1, Integer::sum);
+                }
+                next = 3;
+                break;
+            }
+            default:
+                throw new IllegalArgumentException(format("Unknown scenario [%s]", args[0]));
+        }
+        int threads = args.length > next ? Integer.parseInt(args[next]) : Runtime.getRuntime().availableProcessors();
+        System.out.print(new Simulator(capacity, threads).run(trace));
+    }
+
+    private final class Run {
+
+        private final SimulationTrace trace;
+        private final ExecutorService gates;
+        private final ParkingVenue venue;
+        private final ParkingTicket[] tickets;
+        private final LatencyHistogram parkLatency = new LatencyHistogram();
+        private final LatencyHistogram unparkLatency = new LatencyHistogram();
+        private final DepartureHeap departures = new DepartureHeap();
+        private long parks;
+        private long rejections;
+        private long unparks;
+        private long revenue;
+        private long elapsedNanos;
+
+        Run(SimulationTrace trace, ExecutorService gates) {
+            this.trace = trace;
+            this.gates = gates;
+            this.venue = ParkingVenue.createParkingVenue(trace.getVenue(), capacity);
+            this.tickets = new ParkingTicket[trace.size()];
+        }
+
+        SimulationReport execute() {
+            int[] batch = new int[1024];
+            int nextArrival = 0;
+            int[] free = new int[Spot.values().length];
+            while (nextArrival < trace.size() || !departures.isEmpty()) {
+                long now = departures.isEmpty() ? trace.getArrival(nextArrival)
+                        : nextArrival == trace.size() ? departures.peekTime()
+                        : Math.min(trace.getArrival(nextArrival), departures.peekTime());
+
+                int leaving = 0;
+                while (!departures.isEmpty() && departures.peekTime() == now) {
+                    batch = grow(batch, leaving);
+                    batch[leaving++] = departures.pollVehicle();
+                }
+                if (leaving > 0) {
+                    revenue += phase(batch, leaving, vehicle -> unpark(vehicle, now));
+                    unparks += leaving;
+                }
+
+                for (Spot spot : venue.getConfiguredSpots()) {
+                    free[spot.ordinal()] = venue.getFreeSpots(spot);
+                }
+                int arriving = 0;
+                for (; nextArrival < trace.size() && trace.getArrival(nextArrival) == now; nextArrival++) {
+                    int spot = trace.getSpot(nextArrival).ordinal();
+                    if (free[spot] == 0) {
+                        rejections++;
+                        continue;
+                    }
+                    free[spot]--;
+                    batch = grow(batch, arriving);
+                    batch[arriving++] = nextArrival;
+                    departures.add(now + trace.getStay(nextArrival), nextArrival);
+                }
+                if (arriving > 0) {
+                    phase(batch, arriving, vehicle -> park(vehicle, now));
+                    parks += arriving;
+                }
+            }
+            return new SimulationReport(trace.getVenue(), threads, trace.size(), parks, rejections, unparks, revenue,
+                    elapsedNanos, parkLatency.snapshot(), unparkLatency.snapshot());
+        }
+
+        private long park(int vehicle, long now) {
+            LocalDateTime entry = trace.getStart().plusSeconds(now);
+            long startNanos = System.nanoTime();
+            try {
+                tickets[vehicle] = venue.park(trace.getSpot(vehicle), entry);
+            } catch (ParkingIsFullException e) {
+                throw new IllegalStateException(format("Vehicle [%d] was admitted but found no spot", vehicle), e);
+            }
+            parkLatency.record(System.nanoTime() - startNanos);
+            return 0;
+        }
+
+        private long unpark(int vehicle, long now) {
+            LocalDateTime exit = trace.getStart().plusSeconds(now);
+            long startNanos = System.nanoTime();
+            long fee = venue.unpark(trace.getSpot(vehicle), tickets[vehicle], exit).getFees();
+            unparkLatency.record(System.nanoTime() - startNanos);
+            tickets[vehicle] = null;
+            return fee;
+        }
+
+        // Splits the batch over the gate threads and waits for all of them; returns the sum of the results.
+        private long phase(int[] batch, int size, VehicleOperation operation) {
+            int slices = Math.min(threads, size);
+            List<Callable<Long>> tasks = new ArrayList<>(slices);
+            for (int slice = 0; slice < slices; slice++) {
+                int from = (int) ((long) size * slice / slices);
+                int to = (int) ((long) size * (slice + 1) / slices);
+                tasks.add(() -> {
+                    long sum = 0;
+                    for (int i = from; i < to; i++) {
+                        sum += operation.apply(batch[i]);
+                    }
+                    return sum;
+                });
+            }
+            long startNanos = System.nanoTime();
+            long sum = 0;
+            try {
+                for (Future<Long> result : gates.invokeAll(tasks)) {
+                    sum += result.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Simulation interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Gate failed during simulation", e.getCause());
+            }
+            elapsedNanos += System.nanoTime() - startNanos;
+            return sum;
+        }
+
+        private int[] grow(int[] batch, int size) {
+            return size < batch.length ? batch : Arrays.copyOf(batch, batch.length * 2);
+        }
+    }
+
+    private interface VehicleOperation {
+
+        long apply(int vehicle);
+    }
+
+    /**
+     * Binary min-heap of departures keyed by time, then vehicle, packed into one long each.
+     */
+    private static final class DepartureHeap {
+
+        private long[] heap = new long[1024];
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void add(long time, int vehicle) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+            long key = time << 32 | vehicle;
+            int i = size++;
+            while (i > 0 && heap[(i - 1) >>> 1] > key) {
+                heap[i] = heap[(i - 1) >>> 1];
+                i = (i - 1) >>> 1;
+            }
+            heap[i] = key;
+        }
+
+        long peekTime() {
+            return heap[0] >>> 32;
+        }
+
+        int pollVehicle() {
+            int vehicle = (int) heap[0];
+            long last = heap[--size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+                if (heap[child] >= last) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = last;
+            return vehicle;
+        }
+    }
+}
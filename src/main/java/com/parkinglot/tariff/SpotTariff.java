@@ -0,0 +1,74 @@
+package com.parkinglot.tariff;
+
+import com.parkinglot.exceptions.TariffConfigurationException;
+
+import static java.lang.String.format;
+
+/**
+ * Compiled fee schedule for one spot type at one venue.
+ * <p>
+ * Fees for the first {@link #TABLE_HOURS} hours are precomputed, so the common case is a single
+ * array read. Longer stays fall back to the band arithmetic.
+ */
+public final class SpotTariff {
+
+    public static final int TABLE_HOURS = 31 * 24;
+
+    private final long[] bandUpperBounds;
+    private final long[] bandFees;
+    private final long hourlyRate;
+    private final long dailyRate;
+    private final long[] table;
+
+    SpotTariff(long[] bandUpperBounds, long[] bandFees, long hourlyRate, long dailyRate) {
+        if (hourlyRate != 0 && dailyRate != 0) {
+            throw new TariffConfigurationException("A tariff cannot have both an hourly and a daily rate");
+        }
+        for (int i = 1; i < bandUpperBounds.length; i++) {
+            if (bandUpperBounds[i] <= bandUpperBounds[i - 1]) {
+                throw new TariffConfigurationException(format("Band bounds must be ascending, found [%d] after [%d]",
+                        bandUpperBounds[i], bandUpperBounds[i - 1]));
+            }
+        }
+        this.bandUpperBounds = bandUpperBounds;
+        this.bandFees = bandFees;
+        this.hourlyRate = hourlyRate;
+        this.dailyRate = dailyRate;
+        this.table = new long[TABLE_HOURS + 1];
+        for (int hours = 0; hours <= TABLE_HOURS; hours++) {
+            table[hours] = compute(hours);
+        }
+    }
+
+    public long fee(long hours) {
+        if (Long.compareUnsigned(hours, table.length) < 0) {
+            return table[(int) hours];
+        }
+        return compute(hours);
+    }
+
+    /**
+     * Fills {@code fees[i]} with the fee of {@code hours[i]} for the first {@code count} stays; the
+     * table lookups run as one tight loop.
+     */
+    public void fees(long[] hours, long[] fees, int count) {
+        for (int i = 0; i < count; i++) {
+            long stay = hours[i];
+            fees[i] = Long.compareUnsigned(stay, table.length) < 0 ? table[(int) stay] : compute(stay);
+        }
+    }
+
+    private long compute(long hours) {
+        for (int band = 0; band < bandUpperBounds.length; band++) {
+            if (hours <= bandUpperBounds[band]) {
+                return bandFees[band];
+            }
+        }
+        long lastUpperBound = bandUpperBounds.length == 0 ? 0 : bandUpperBounds[bandUpperBounds.length - 1];
+        long lastFee = bandFees.length == 0 ? 0 : bandFees[bandFees.length - 1];
+        if (dailyRate != 0) {
+            return dailyRate * (hours / 24 + 1);
+        }
+        return lastFee + hourlyRate * (hours - lastUpperBound);
+    }
+}
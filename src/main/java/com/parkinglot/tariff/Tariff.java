@@ -0,0 +1,136 @@
+package com.parkinglot.tariff;
+
+import com.parkinglot.enums.Spot;
+import com.parkinglot.enums.Venue;
+import com.parkinglot.exceptions.SpotNotFoundException;
+import com.parkinglot.exceptions.TariffConfigurationException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import static java.lang.String.format;
+
+/**
+ * Immutable set of compiled {@link SpotTariff}s for every venue type, loaded from a properties file
+ * in the format of {@code tariffs.properties}.
+ */
+public final class Tariff {
+
+    private static final String BANDS = "bands";
+    private static final String HOURLY = "hourly";
+    private static final String DAILY = "daily";
+
+    private final SpotTariff[][] spotTariffs;
+
+    private Tariff(SpotTariff[][] spotTariffs) {
+        this.spotTariffs = spotTariffs;
+    }
+
+    public static Tariff load(Path path) {
+        try (Reader reader = Files.newBufferedReader(path)) {
+            Properties properties = new Properties();
+            properties.load(reader);
+            return compile(properties);
+        } catch (IOException e) {
+            throw new UncheckedIOException(format("Cannot read tariff file [%s]", path), e);
+        }
+    }
+
+    public static Tariff load(InputStream inputStream) {
+        try (inputStream) {
+            Properties properties = new Properties();
+            properties.load(inputStream);
+            return compile(properties);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read tariff", e);
+        }
+    }
+
+    public static Tariff compile(Properties properties) {
+        for (String key : properties.stringPropertyNames()) {
+            checkKey(key);
+        }
+        SpotTariff[][] spotTariffs = new SpotTariff[Venue.values().length][Spot.values().length];
+        for (Venue venue : Venue.values()) {
+            for (Spot spot : Spot.values()) {
+                String prefix = venue + "." + spot + ".";
+                String bands = properties.getProperty(prefix + BANDS);
+                String hourly = properties.getProperty(prefix + HOURLY);
+                String daily = properties.getProperty(prefix + DAILY);
+                if (bands == null && hourly == null && daily == null) {
+                    continue;
+                }
+                long[][] parsedBands = parseBands(prefix + BANDS, bands);
+                spotTariffs[venue.ordinal()][spot.ordinal()] = new SpotTariff(parsedBands[0], parsedBands[1],
+                        parseRate(prefix + HOURLY, hourly), parseRate(prefix + DAILY, daily));
+            }
+        }
+        return new Tariff(spotTariffs);
+    }
+
+    public long fee(Venue venue, Spot spot, long hours) {
+        return getSpotTariff(venue, spot).fee(hours);
+    }
+
+    public SpotTariff getSpotTariff(Venue venue, Spot spot) {
+        SpotTariff spotTariff = spotTariffs[venue.ordinal()][spot.ordinal()];
+        if (spotTariff == null) {
+            throw new SpotNotFoundException(format("Spot type [%s] is not supported", spot));
+        }
+        return spotTariff;
+    }
+
+    private static void checkKey(String key) {
+        String[] parts = key.split("\\.");
+        try {
+            if (parts.length == 3) {
+                Venue.valueOf(parts[0]);
+                Spot.valueOf(parts[1]);
+                if (parts[2].equals(BANDS) || parts[2].equals(HOURLY) || parts[2].equals(DAILY)) {
+                    return;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // reported below
+        }
+        throw new TariffConfigurationException(format("Unknown tariff key [%s]", key));
+    }
+
+    private static long[][] parseBands(String key, String value) {
+        if (value == null || value.isBlank()) {
+            return new long[][]{new long[0], new long[0]};
+        }
+        String[] bands = value.split(",");
+        long[] upperBounds = new long[bands.length];
+        long[] fees = new long[bands.length];
+        for (int i = 0; i < bands.length; i++) {
+            String[] band = bands[i].trim().split(":");
+            if (band.length != 2) {
+                throw new TariffConfigurationException(format("Band [%s] of [%s] is not <hours>:<fee>", bands[i], key));
+            }
+            upperBounds[i] = parseRate(key, band[0]);
+            fees[i] = parseRate(key, band[1]);
+        }
+        return new long[][]{upperBounds, fees};
+    }
+
+    private static long parseRate(String key, String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            long rate = Long.parseLong(value.trim());
+            if (rate < 0) {
+                throw new TariffConfigurationException(format("Negative value [%s] for [%s]", value, key));
+            }
+            return rate;
+        } catch (NumberFormatException e) {
+            throw new TariffConfigurationException(format("Invalid number [%s] for [%s]", value, key));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.parkinglot.tariff;
+
+import com.parkinglot.enums.Spot;
+import com.parkinglot.enums.Venue;
+
+import java.nio.file.Path;
+
+/**
+ * Holder of the live {@link Tariff}. A reload compiles the new tariff on the calling thread and then
+ * swaps a single volatile reference, so exit gates computing fees never wait for it.
+ */
+public class TariffEngine {
+
+    private static final String DEFAULT_TARIFF = "/tariffs.properties";
+
+    private static final TariffEngine DEFAULT = new TariffEngine(
+            Tariff.load(TariffEngine.class.getResourceAsStream(DEFAULT_TARIFF)));
+
+    private volatile Tariff tariff;
+
+    public TariffEngine(Tariff tariff) {
+        this.tariff = tariff;
+    }
+
+    /**
+     * @return the engine shared by all venues, initialised from {@code tariffs.properties} on the classpath
+     */
+    public static TariffEngine getDefault() {
+        return DEFAULT;
+    }
+
+    public long fee(Venue venue, Spot spot, long hours) {
+        return tariff.fee(venue, spot, hours);
+    }
+
+    public Tariff getTariff() {
+        return tariff;
+    }
+
+    public void reload(Path path) {
+        reload(Tariff.load(path));
+    }
+
+    public void reload(Tariff tariff) {
+        this.tariff = tariff;
+    }
+}
@@ -0,0 +1,46 @@
+package com.parkinglot.token;
+
+/**
+ * SipHash-2-4 of a 16 byte message given as two little-endian words.
+ */
+final class SipHash {
+
+    // Final block of a 16 byte message: its length in the top byte, no trailing bytes.
+    private static final long LAST_BLOCK = 16L << 56;
+
+    private SipHash() {
+    }
+
+    static long hash(long k0, long k1, long m0, long m1) {
+        long v0 = k0 ^ 0x736f6d6570736575L;
+        long v1 = k1 ^ 0x646f72616e646f6dL;
+        long v2 = k0 ^ 0x6c7967656e657261L;
+        long v3 = k1 ^ 0x7465646279746573L;
+        for (int block = 0; block < 4; block++) {
+            long m = block == 0 ? m0 : block == 1 ? m1 : LAST_BLOCK;
+            int rounds = 2;
+            if (block < 3) {
+                v3 ^= m;
+            } else {
+                v2 ^= 0xff;
+                rounds = 4;
+            }
+            for (int round = 0; round < rounds; round++) {
+                v0 += v1;
+                v1 = Long.rotateLeft(v1, 13) ^ v0;
+                v0 = Long.rotateLeft(v0, 32);
+                v2 += v3;
+                v3 = Long.rotateLeft(v3, 16) ^ v2;
+                v0 += v3;
+                v3 = Long.rotateLeft(v3, 21) ^ v0;
+                v2 += v1;
+                v1 = Long.rotateLeft(v1, 17) ^ v2;
+                v2 = Long.rotateLeft(v2, 32);
+            }
+            if (block < 3) {
+                v0 ^= m;
+            }
+        }
+        return v0 ^ v1 ^ v2 ^ v3;
+    }
+}
@@ -0,0 +1,177 @@
+package com.parkinglot.token;
+
+import com.parkinglot.entity.ParkingTicket;
+import com.parkinglot.enums.Spot;
+import com.parkinglot.enums.Venue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static java.lang.String.format;
+import static java.time.ZoneOffset.UTC;
+
+/**
+ * Signs tickets into compact tokens that exit lanes can verify without the venue, e.g. during an outage.
+ * <p>
+ * A token is three big-endian words, 24 bytes, printed as {@value #TEXT_LENGTH} characters of Crockford
+ * base32 for barcodes:
+ * <pre>
+ * word 0  ticket number
+ * word 1  entry epoch second (33 bits) | spot number (25 bits) | spot ordinal (3 bits) | venue ordinal (3 bits)
+ * word 2  SipHash-2-4 of words 0 and 1 under the venue key
+ * </pre>
+ * Decoding writes into a caller-owned {@link TicketToken} and reports a bad token by returning
+ * {@code false}, so verifying a scan allocates nothing.
+ */
+public final class TicketCodec {
+
+    public static final int BINARY_LENGTH = 3 * Long.BYTES;
+    public static final int TEXT_LENGTH = (BINARY_LENGTH * Byte.SIZE + 4) / 5;
+
+    private static final String ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+    private static final byte[] DIGITS = new byte[128];
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle KEY = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final Venue[] VENUES = Venue.values();
+    private static final Spot[] SPOTS = Spot.values();
+
+    private static final int KIND_BITS = 3;
+    private static final int SPOT_NUMBER_BITS = 25;
+    private static final int ENTRY_SHIFT = 2 * KIND_BITS + SPOT_NUMBER_BITS;
+    private static final long MAX_ENTRY_EPOCH_SECOND = (1L << (Long.SIZE - ENTRY_SHIFT)) - 1;
+
+    static {
+        Arrays.fill(DIGITS, (byte) -1);
+        for (int digit = 0; digit < ALPHABET.length(); digit++) {
+            DIGITS[ALPHABET.charAt(digit)] = (byte) digit;
+            DIGITS[Character.toLowerCase(ALPHABET.charAt(digit))] = (byte) digit;
+        }
+        // Crockford aliases for characters that are easily misread.
+        DIGITS['O'] = DIGITS['o'] = 0;
+        DIGITS['I'] = DIGITS['i'] = DIGITS['L'] = DIGITS['l'] = 1;
+    }
+
+    private final long k0;
+    private final long k1;
+
+    /**
+     * @param key the 16 byte venue key; every lane that verifies tokens needs the same key
+     */
+    public TicketCodec(byte[] key) {
+        if (key.length != 16) {
+            throw new IllegalArgumentException(format("Key must be 16 bytes, not [%d]", key.length));
+        }
+        this.k0 = (long) KEY.get(key, 0);
+        this.k1 = (long) KEY.get(key, 8);
+    }
+
+    public String encode(Venue venue, Spot spot, ParkingTicket ticket) {
+        byte[] token = new byte[BINARY_LENGTH];
+        encode(venue, spot, ticket.getSpotNumber(), ticket.getTicketNumber(),
+                ticket.getEntryDateTime().toEpochSecond(UTC), token, 0);
+        long w0 = (long) LONGS.get(token, 0);
+        long w1 = (long) LONGS.get(token, 8);
+        long w2 = (long) LONGS.get(token, 16);
+        char[] text = new char[TEXT_LENGTH];
+        for (int c = 0; c < TEXT_LENGTH; c++) {
+            int bit = c * 5;
+            long word = bit < 64 ? w0 : bit < 128 ? w1 : w2;
+            long next = bit < 64 ? w1 : bit < 128 ? w2 : 0;
+            int offset = bit & 63;
+            long window = word << offset | (offset == 0 ? 0 : next >>> (64 - offset));
+            text[c] = ALPHABET.charAt((int) (window >>> 59));
+        }
+        return new String(text);
+    }
+
+    /**
+     * Writes the {@value #BINARY_LENGTH} byte token of a ticket to {@code out} at {@code offset}.
+     */
+    public void encode(Venue venue, Spot spot, int spotNumber, long ticketNumber, long entryEpochSecond,
+                       byte[] out, int offset) {
+        if (spotNumber < 1 || spotNumber >= 1 << SPOT_NUMBER_BITS || entryEpochSecond < 0
+                || entryEpochSecond > MAX_ENTRY_EPOCH_SECOND) {
+            throw new IllegalArgumentException(format("Spot [%d] entered at [%d] does not fit a token",
+                    spotNumber, entryEpochSecond));
+        }
+        long w1 = entryEpochSecond << ENTRY_SHIFT | (long) spotNumber << 2 * KIND_BITS
+                | spot.ordinal() << KIND_BITS | venue.ordinal();
+        LONGS.set(out, offset, ticketNumber);
+        LONGS.set(out, offset + 8, w1);
+        LONGS.set(out, offset + 16, SipHash.hash(k0, k1, ticketNumber, w1));
+    }
+
+    /**
+     * Decodes and verifies a printed token.
+     *
+     * @return {@code false}, leaving {@code into} in an unspecified state, if the token is malformed or its
+     * signature does not match
+     */
+    public boolean decode(CharSequence text, TicketToken into) {
+        if (text.length() != TEXT_LENGTH) {
+            return false;
+        }
+        long w0 = 0;
+        long w1 = 0;
+        long w2 = 0;
+        long pending = 0;
+        int pendingBits = 0;
+        int word = 0;
+        for (int c = 0; c < TEXT_LENGTH; c++) {
+            char character = text.charAt(c);
+            int digit = character < DIGITS.length ? DIGITS[character] : -1;
+            if (digit < 0) {
+                return false;
+            }
+            int room = Long.SIZE - pendingBits;
+            if (room > 5) {
+                pending = pending << 5 | digit;
+                pendingBits += 5;
+                continue;
+            }
+            long full = pending << room | digit >>> (5 - room);
+            if (word == 0) {
+                w0 = full;
+            } else if (word == 1) {
+                w1 = full;
+            } else {
+                w2 = full;
+            }
+            word++;
+            pendingBits = 5 - room;
+            pending = digit & ((1 << pendingBits) - 1);
+        }
+        // The last character carries two bits of the signature; the rest must be padding.
+        return pending == 0 && verify(w0, w1, w2, into);
+    }
+
+    /**
+     * Decodes and verifies a binary token at {@code offset}.
+     */
+    public boolean decode(byte[] token, int offset, TicketToken into) {
+        if (offset < 0 || token.length - offset < BINARY_LENGTH) {
+            return false;
+        }
+        return verify((long) LONGS.get(token, offset), (long) LONGS.get(token, offset + 8),
+                (long) LONGS.get(token, offset + 16), into);
+    }
+
+    private boolean verify(long w0, long w1, long w2, TicketToken into) {
+        if (SipHash.hash(k0, k1, w0, w1) != w2) {
+            return false;
+        }
+        int venue = (int) w1 & ((1 << KIND_BITS) - 1);
+        int spot = (int) (w1 >>> KIND_BITS) & ((1 << KIND_BITS) - 1);
+        if (venue >= VENUES.length || spot >= SPOTS.length) {
+            return false;
+        }
+        into.venue = VENUES[venue];
+        into.spot = SPOTS[spot];
+        into.spotNumber = (int) (w1 >>> 2 * KIND_BITS) & ((1 << SPOT_NUMBER_BITS) - 1);
+        into.ticketNumber = w0;
+        into.entryEpochSecond = w1 >>> ENTRY_SHIFT;
+        return true;
+    }
+}
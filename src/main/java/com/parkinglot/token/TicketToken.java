@@ -0,0 +1,54 @@
+package com.parkinglot.token;
+
+import com.parkinglot.entity.ParkingTicket;
+import com.parkinglot.enums.Spot;
+import com.parkinglot.enums.Venue;
+import com.parkinglot.tariff.Tariff;
+
+import java.time.LocalDateTime;
+
+import static java.time.ZoneOffset.UTC;
+
+/**
+ * Fields of a decoded ticket token. Instances are mutable and meant to be reused: an exit lane keeps one
+ * and lets {@link TicketCodec} overwrite it for every scan, so decoding allocates nothing.
+ */
+public final class TicketToken {
+
+    Venue venue;
+    Spot spot;
+    int spotNumber;
+    long ticketNumber;
+    long entryEpochSecond;
+
+    public Venue getVenue() {
+        return venue;
+    }
+
+    public Spot getSpot() {
+        return spot;
+    }
+
+    public int getSpotNumber() {
+        return spotNumber;
+    }
+
+    public long getTicketNumber() {
+        return ticketNumber;
+    }
+
+    public long getEntryEpochSecond() {
+        return entryEpochSecond;
+    }
+
+    /**
+     * Computes the fee offline, the same way the venue does: every started hour counts.
+     */
+    public long fee(long exitEpochSecond, Tariff tariff) {
+        return tariff.getSpotTariff(venue, spot).fee((exitEpochSecond - entryEpochSecond) / 3600 + 1);
+    }
+
+    public ParkingTicket toTicket() {
+        return new ParkingTicket(ticketNumber, spotNumber, LocalDateTime.ofEpochSecond(entryEpochSecond, 0, UTC));
+    }
+}
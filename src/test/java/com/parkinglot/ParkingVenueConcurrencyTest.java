@@ -0,0 +1,143 @@
+package com.parkinglot;
+
+import com.parkinglot.entity.ParkingTicket;
+import com.parkinglot.enums.Spot;
+import com.parkinglot.exceptions.ParkingIsFullException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.parkinglot.enums.Spot.*;
+import static com.parkinglot.enums.Venue.MALL;
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class ParkingVenueConcurrencyTest {
+
+    private static final int GATES = 8;
+    private static final int VEHICLES_PER_GATE = 20_000;
+    private static final LocalDateTime ENTRY = LocalDateTime.of(2022, 5, 29, 14, 0, 0);
+
+    // Every gate parks and unparks in a tight loop; a spot must never be held by two vehicles at once.
+    @Test
+    void testNoSpotIsHandedOutTwice() throws Exception {
+        ParkingVenue venue = ParkingVenue.createParkingVenue(MALL,
+                Map.of(MOTORCYCLE_OR_SCOOTER, 4, CAR_OR_SUV, 16, BUS_OR_TRUCK, 2));
+        Set<String> held = ConcurrentHashMap.newKeySet();
+        AtomicInteger doubleAllocations = new AtomicInteger();
+        AtomicInteger parked = new AtomicInteger();
+
+        runGates(gate -> {
+            Spot spot = Spot.values()[gate % Spot.values().length];
+            for (int i = 0; i < VEHICLES_PER_GATE; i++) {
+                ParkingTicket ticket;
+                try {
+                    ticket = venue.park(spot, ENTRY);
+                } catch (ParkingIsFullException e) {
+                    continue;
+                }
+                String key = spot + "#" + ticket.getSpotNumber();
+                if (!held.add(key)) {
+                    doubleAllocations.incrementAndGet();
+                }
+                parked.incrementAndGet();
+                held.remove(key);
+                venue.unpark(spot, ticket, ENTRY.plusHours(1));
+            }
+        });
+
+        assertThat(doubleAllocations).hasValue(0);
+        assertThat(parked.get()).isPositive();
+        assertThat(held).isEmpty();
+    }
+
+    // Filling the lot from every gate at once must hand out each spot exactly once.
+    @Test
+    void testConcurrentFillAllocatesEverySpotOnce() throws Exception {
+        int capacity = 5_000;
+        ParkingVenue venue = ParkingVenue.createParkingVenue(MALL, Map.of(CAR_OR_SUV, capacity));
+        Set<Integer> allocated = ConcurrentHashMap.newKeySet();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runGates(gate -> {
+            for (int i = 0; i < capacity; i++) {
+                try {
+                    assertThat(allocated.add(venue.park(CAR_OR_SUV, ENTRY).getSpotNumber())).isTrue();
+                } catch (ParkingIsFullException e) {
+                    rejected.incrementAndGet();
+                }
+            }
+        });
+
+        assertThat(allocated).hasSize(capacity);
+        assertThat(rejected).hasValue(GATES * capacity - capacity);
+    }
+
+    // Gates leasing ticket numbers in blocks never issue the same number twice.
+    @Test
+    void testLeasedTicketNumbersAreUnique() throws Exception {
+        ParkingVenue venue = ParkingVenue.createParkingVenue(MALL, Map.of(CAR_OR_SUV, GATES * 1_000));
+        venue.setNumberBlockSize(64);
+        Set<Long> ticketNumbers = ConcurrentHashMap.newKeySet();
+
+        runGates(gate -> {
+            for (int i = 0; i < 1_000; i++) {
+                try {
+                    assertThat(ticketNumbers.add(venue.park(CAR_OR_SUV, ENTRY).getTicketNumber())).isTrue();
+                } catch (ParkingIsFullException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+
+        assertThat(ticketNumbers).hasSize(GATES * 1_000);
+    }
+
+    // Two venues in the same JVM keep independent spot pools.
+    @Test
+    void testVenuesDoNotShareSpots() throws ParkingIsFullException {
+        ParkingVenue first = ParkingVenue.createParkingVenue(MALL, Map.of(CAR_OR_SUV, 1));
+        ParkingVenue second = ParkingVenue.createParkingVenue(MALL, Map.of(CAR_OR_SUV, 1));
+
+        assertThat(first.park(CAR_OR_SUV, ENTRY).getSpotNumber()).isEqualTo(1);
+        assertThat(second.park(CAR_OR_SUV, ENTRY).getSpotNumber()).isEqualTo(1);
+    }
+
+    private static void runGates(Gate gate) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(GATES);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < GATES; i++) {
+                int gateNumber = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    gate.run(gateNumber);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Gate {
+        void run(int gate);
+    }
+}
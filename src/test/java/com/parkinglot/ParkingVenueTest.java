@@ -1,23 +1,43 @@
 package com.parkinglot;
 
 
+import com.parkinglot.allocation.SessionStorage;
 import com.parkinglot.entity.ParkingReceipt;
 import com.parkinglot.entity.ParkingTicket;
+import com.parkinglot.entity.SpotDetails;
+import com.parkinglot.enums.BatchMode;
 import com.parkinglot.enums.Spot;
+import com.parkinglot.exceptions.GateNotFoundException;
+import com.parkinglot.exceptions.InvalidTicketException;
 import com.parkinglot.exceptions.ParkingIsFullException;
+import com.parkinglot.exceptions.SpotNotFoundException;
+import com.parkinglot.journal.Journal;
+import com.parkinglot.layout.VenueLayout;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.parkinglot.enums.Spot.*;
 
 import static com.parkinglot.enums.Venue.*;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 
 
 class ParkingVenueTest {
@@ -185,4 +205,235 @@ class ParkingVenueTest {
         assertThat(receipt6.getFees()).isEqualTo(400);
     }
 
-}
\ No newline at end of file
+
+    @Test
+    void testTryParkReportsFullLotWithoutException() {
+        ParkingVenue venue = ParkingVenue.createParkingVenue(STADIUM, Map.of(CAR_OR_SUV, 1));
+        LocalDateTime entry = LocalDateTime.of(2022, 5, 29, 14, 4, 7);
+        assertThat(venue.hasFreeSpot(CAR_OR_SUV)).isTrue();
+
+        ParkingTicket ticket = venue.tryPark(CAR_OR_SUV, entry).orElseThrow();
+        assertThat(ticket.getSpotNumber()).isEqualTo(1);
+        assertThat(venue.hasFreeSpot(CAR_OR_SUV)).isFalse();
+        assertThat(venue.tryPark(CAR_OR_SUV, entry)).isEmpty();
+
+        venue.unpark(CAR_OR_SUV, ticket, entry.plusHours(1));
+        assertThat(venue.tryPark(CAR_OR_SUV, entry)).isPresent();
+    }
+
+    @Test
+    void testUnparkByTicketNumberRejectsDoubleExitAndForgedTickets() throws ParkingIsFullException {
+        ParkingVenue venue = ParkingVenue.createParkingVenue(AIRPORT, Map.of(CAR_OR_SUV, 5));
+        LocalDateTime entry = LocalDateTime.of(2022, 5, 29, 14, 4, 7);
+        ParkingTicket first = venue.park(CAR_OR_SUV, entry);
+        ParkingTicket second = venue.park(CAR_OR_SUV, entry.plusMinutes(5));
+
+        ParkingReceipt receipt = venue.unpark(first.getTicketNumber(), entry.plusHours(13));
+        assertThat(receipt.getEntryDateTime()).isEqualTo(entry);
+        assertThat(receipt.getFees()).isEqualTo(80);
+        assertThatExceptionOfType(InvalidTicketException.class)
+                .isThrownBy(() -> venue.unpark(CAR_OR_SUV, first, entry.plusHours(14)))
+                .withMessage("Ticket [1] is not parked in the venue [AIRPORT]");
+
+        ParkingTicket forged = new ParkingTicket(second.getTicketNumber(), second.getSpotNumber(), entry.plusHours(3));
+        assertThatExceptionOfType(InvalidTicketException.class)
+                .isThrownBy(() -> venue.unpark(CAR_OR_SUV, forged, entry.plusHours(4)))
+                .withMessage("Ticket [2] does not match its session in the venue [AIRPORT]");
+        assertThatExceptionOfType(InvalidTicketException.class)
+                .isThrownBy(() -> venue.unpark(99, entry.plusHours(4)));
+
+        assertThat(venue.getActiveSessions()).isEqualTo(1);
+        venue.unpark(CAR_OR_SUV, second, entry.plusHours(4));
+        assertThat(venue.getActiveSessions()).isZero();
+        assertThat(venue.getFreeSpots(CAR_OR_SUV)).isEqualTo(5);
+    }
+
+    // Sessions keep whole seconds, so both exit paths must charge a sub-second entry the same.
+    @Test
+    void testSubSecondEntryPricedAlikeOnEveryExitPath() throws ParkingIsFullException {
+        ParkingVenue venue = ParkingVenue.createParkingVenue(AIRPORT, Map.of(CAR_OR_SUV, 2));
+        LocalDateTime entry = LocalDateTime.of(2022, 5, 29, 14, 4, 7, 900_000_000);
+        LocalDateTime exit = LocalDateTime.of(2022, 5, 30, 2, 4, 7, 500_000_000);
+        ParkingTicket byTicket = venue.park(CAR_OR_SUV, entry);
+        ParkingTicket byNumber = venue.park(CAR_OR_SUV, entry);
+        assertThat(byTicket.getEntryDateTime()).isEqualTo(entry.withNano(0));
+
+        assertThat(venue.unpark(CAR_OR_SUV, byTicket, exit).getFees()).isEqualTo(80);
+        assertThat(venue.unpark(byNumber.getTicketNumber(), exit).getFees()).isEqualTo(80);
+    }
+
+    @Test
+    void testOffHeapSessionsAndTicketViews() throws ParkingIsFullException {
+        ParkingVenue venue = ParkingVenue.createParkingVenue(AIRPORT, Map.of(CAR_OR_SUV, 100_000),
+                SessionStorage.OFF_HEAP);
+        LocalDateTime entry = LocalDateTime.of(2022, 5, 29, 14, 4, 7);
+        for (int i = 0; i < 100_000; i++) {
+            venue.park(CAR_OR_SUV, entry.plusSeconds(i));
+        }
+        assertThat(venue.getTicket(54_321)).contains(new ParkingTicket(54_321, 54_321, entry.plusSeconds(54_320)));
+
+        ParkingReceipt receipt = venue.unpark(54_321, entry.plusSeconds(54_320).plusHours(13));
+        assertThat(receipt.getFees()).isEqualTo(80);
+        assertThat(venue.getTicket(54_321)).isEmpty();
+        assertThat(venue.park(CAR_OR_SUV, entry).getSpotNumber()).isEqualTo(54_321);
+    }
+
+    @Test
+    void testResizeKeepsSessionsAndDrainsClosedSpots() throws ParkingIsFullException {
+        ParkingVenue venue = ParkingVenue.createParkingVenue(AIRPORT, Map.of(CAR_OR_SUV, 2), SessionStorage.OFF_HEAP);
+        LocalDateTime entry = LocalDateTime.of(2022, 5, 29, 14, 4, 7);
+        ParkingTicket first = venue.park(CAR_OR_SUV, entry);
+
+        venue.resize(CAR_OR_SUV, 10_000);
+        ParkingTicket[] tickets = new ParkingTicket[9_999];
+        for (int i = 0; i < tickets.length; i++) {
+            tickets[i] = venue.park(CAR_OR_SUV, entry.plusSeconds(i));
+        }
+        assertThat(venue.tryPark(CAR_OR_SUV, entry)).isEmpty();
+        assertThat(venue.getTicket(tickets[9_998].getTicketNumber())).contains(tickets[9_998]);
+
+        venue.resize(CAR_OR_SUV, 1);
+        assertThat(venue.getOccupiedSpots(CAR_OR_SUV)).isEqualTo(10_000);
+        assertThat(venue.unpark(CAR_OR_SUV, tickets[9_998], entry.plusHours(1)).getFees()).isEqualTo(60);
+        assertThat(venue.unpark(CAR_OR_SUV, first, entry.plusHours(1)).getFees()).isEqualTo(60);
+        assertThat(venue.getOccupiedSpots(CAR_OR_SUV)).isEqualTo(9_998);
+        assertThat(venue.park(CAR_OR_SUV, entry).getSpotNumber()).isEqualTo(1);
+        assertThat(venue.tryPark(CAR_OR_SUV, entry)).isEmpty();
+    }
+
+    // A batch that fails validation or journaling must not keep spots claimed without a session.
+    @Test
+    void testFailedBatchParkReleasesEveryClaim(@TempDir Path parent) throws Exception {
+        ParkingVenue stadium = ParkingVenue.createParkingVenue(STADIUM, Map.of(MOTORCYCLE_OR_SCOOTER, 10, CAR_OR_SUV, 10));
+        LocalDateTime entry = LocalDateTime.of(2022, 5, 29, 14, 4, 7);
+        assertThatExceptionOfType(SpotNotFoundException.class).isThrownBy(() -> stadium.parkAll(
+                Map.of(CAR_OR_SUV, 5, BUS_OR_TRUCK, 1), entry, BatchMode.BEST_EFFORT));
+        Map<Spot, Integer> invalid = new EnumMap<>(Map.of(MOTORCYCLE_OR_SCOOTER, 2, CAR_OR_SUV, -1));
+        assertThatIllegalArgumentException().isThrownBy(() -> stadium.parkAll(invalid, entry, BatchMode.BEST_EFFORT));
+        invalid.put(CAR_OR_SUV, null);
+        assertThatIllegalArgumentException().isThrownBy(() -> stadium.parkAll(invalid, entry, BatchMode.BEST_EFFORT));
+        assertThat(stadium.getFreeSpots(MOTORCYCLE_OR_SCOOTER)).isEqualTo(10);
+        assertThat(stadium.getFreeSpots(CAR_OR_SUV)).isEqualTo(10);
+
+        Path directory = parent.resolve("journal");
+        Journal journal = Journal.open(directory, 2, false);
+        ParkingVenue mall = ParkingVenue.createParkingVenue(MALL,
+                Map.of(MOTORCYCLE_OR_SCOOTER, 5, CAR_OR_SUV, 5, BUS_OR_TRUCK, 5), journal);
+        mall.park(MOTORCYCLE_OR_SCOOTER, entry);
+        // The next journal segment cannot be created, so the first car of the batch fails to journal.
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+        assertThatExceptionOfType(UncheckedIOException.class).isThrownBy(() -> mall.parkAll(
+                Map.of(MOTORCYCLE_OR_SCOOTER, 1, CAR_OR_SUV, 2, BUS_OR_TRUCK, 1), entry, BatchMode.ALL_OR_NOTHING));
+        assertThat(mall.getOccupiedSpots(MOTORCYCLE_OR_SCOOTER)).isEqualTo(2);
+        assertThat(mall.getFreeSpots(CAR_OR_SUV)).isEqualTo(5);
+        assertThat(mall.getFreeSpots(BUS_OR_TRUCK)).isEqualTo(5);
+        assertThat(mall.getActiveSessions()).isEqualTo(2);
+    }
+
+    // Each gate fills its nearest zone first and moves on to the next one it prefers once that zone is full.
+    @Test
+    void testParkNearestToGate() throws ParkingIsFullException {
+        VenueLayout layout = VenueLayout.builder()
+                .zone("L0-A", 0, CAR_OR_SUV, 2)
+                .zone("L0-B", 0, CAR_OR_SUV, 2)
+                .zone("L1-A", 1, CAR_OR_SUV, 3)
+                .zone("L0-M", 0, MOTORCYCLE_OR_SCOOTER, 4)
+                .gate("NORTH", "L0-A", "L0-B")
+                .gate("RAMP", "L1-A", "L0-M")
+                .build();
+        ParkingVenue venue = ParkingVenue.createParkingVenue(MALL, layout);
+        LocalDateTime entry = LocalDateTime.of(2022, 5, 29, 14, 4, 7);
+
+        assertThat(venue.getCapacity(CAR_OR_SUV)).isEqualTo(7);
+        assertThat(venue.park(CAR_OR_SUV, "RAMP", entry).getSpotNumber()).isEqualTo(5);
+        ParkingTicket north = venue.park(CAR_OR_SUV, "NORTH", entry);
+        assertThat(north.getSpotNumber()).isEqualTo(1);
+        assertThat(venue.getSpotDetails(CAR_OR_SUV, 5)).contains(new SpotDetails(CAR_OR_SUV, 5, 1, "L1-A"));
+        assertThat(venue.park(MOTORCYCLE_OR_SCOOTER, "RAMP", entry).getSpotNumber()).isEqualTo(1);
+
+        venue.park(CAR_OR_SUV, "RAMP", entry);
+        venue.park(CAR_OR_SUV, "RAMP", entry);
+        // L1-A is full, so RAMP falls back to the remaining zones in layout order.
+        assertThat(venue.park(CAR_OR_SUV, "RAMP", entry).getSpotNumber()).isEqualTo(2);
+        assertThat(venue.park(CAR_OR_SUV, "NORTH", entry).getSpotNumber()).isEqualTo(3);
+        assertThat(venue.getOccupiedSpots("L1-A")).isEqualTo(3);
+        assertThat(venue.getFreeSpots("L0-B")).isEqualTo(1);
+
+        venue.unpark(CAR_OR_SUV, north, entry.plusHours(1));
+        assertThat(venue.getFreeSpots("L0-A")).isEqualTo(1);
+        assertThat(venue.park(CAR_OR_SUV, "RAMP", entry).getSpotNumber()).isEqualTo(1);
+        assertThat(venue.park(CAR_OR_SUV, entry).getSpotNumber()).isEqualTo(4);
+        assertThat(venue.tryPark(CAR_OR_SUV, "NORTH", entry)).isEmpty();
+        assertThat(venue.getFreeSpots("L0-B")).isZero();
+
+        assertThatExceptionOfType(GateNotFoundException.class)
+                .isThrownBy(() -> venue.park(CAR_OR_SUV, "SOUTH", entry))
+                .withMessage("Gate [SOUTH] is not available in the venue [MALL]");
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> venue.resize(CAR_OR_SUV, 10));
+    }
+
+    @Test
+    void testParkWaitsForNextFreedSpot() throws Exception {
+        ParkingVenue venue = ParkingVenue.createParkingVenue(MALL, Map.of(CAR_OR_SUV, 1));
+        LocalDateTime entry = LocalDateTime.of(2022, 5, 29, 14, 4, 7);
+        ParkingTicket parked = venue.park(CAR_OR_SUV, entry);
+        assertThatExceptionOfType(ParkingIsFullException.class)
+                .isThrownBy(() -> venue.park(CAR_OR_SUV, entry, Duration.ofMillis(10)));
+
+        CompletableFuture<ParkingTicket> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return venue.park(CAR_OR_SUV, entry.plusHours(1), Duration.ofMinutes(1));
+            } catch (ParkingIsFullException | InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (venue.getWaitingGates(CAR_OR_SUV) == 0) {
+            Thread.onSpinWait();
+        }
+        venue.unpark(CAR_OR_SUV, parked, entry.plusHours(1));
+        assertThat(waiting.get().getSpotNumber()).isEqualTo(1);
+        assertThat(venue.getWaitingGates(CAR_OR_SUV)).isZero();
+    }
+
+    @Test
+    void testBatchParkAndUnpark() throws ParkingIsFullException {
+        ParkingVenue venue = ParkingVenue.createParkingVenue(STADIUM, Map.of(MOTORCYCLE_OR_SCOOTER, 10, CAR_OR_SUV, 100));
+        LocalDateTime entry = LocalDateTime.of(2022, 5, 29, 14, 4, 7);
+        ParkingTicket single = venue.park(CAR_OR_SUV, entry);
+
+        assertThatExceptionOfType(ParkingIsFullException.class).isThrownBy(() -> venue.parkAll(
+                Map.of(CAR_OR_SUV, 50, MOTORCYCLE_OR_SCOOTER, 11), entry, BatchMode.ALL_OR_NOTHING));
+        assertThat(venue.getFreeSpots(CAR_OR_SUV)).isEqualTo(99);
+        assertThat(venue.getFreeSpots(MOTORCYCLE_OR_SCOOTER)).isEqualTo(10);
+
+        Map<Spot, List<ParkingTicket>> fleet = venue.parkAll(Map.of(CAR_OR_SUV, 120, MOTORCYCLE_OR_SCOOTER, 4),
+                entry, BatchMode.BEST_EFFORT);
+        assertThat(fleet.get(CAR_OR_SUV)).hasSize(99);
+        assertThat(fleet.get(CAR_OR_SUV).get(0).getSpotNumber()).isEqualTo(2);
+        assertThat(fleet.get(MOTORCYCLE_OR_SCOOTER)).extracting(ParkingTicket::getSpotNumber).containsExactly(1, 2, 3, 4);
+        assertThat(venue.getActiveSessions()).isEqualTo(104);
+        assertThat(venue.getTicket(fleet.get(CAR_OR_SUV).get(98).getTicketNumber()))
+                .contains(fleet.get(CAR_OR_SUV).get(98));
+
+        List<ParkingTicket> leaving = new ArrayList<>(fleet.get(CAR_OR_SUV).subList(0, 3));
+        leaving.add(fleet.get(MOTORCYCLE_OR_SCOOTER).get(0));
+        leaving.add(new ParkingTicket(single.getTicketNumber(), 7, entry));
+        assertThatExceptionOfType(InvalidTicketException.class)
+                .isThrownBy(() -> venue.unparkAll(leaving, entry.plusHours(5), BatchMode.ALL_OR_NOTHING));
+        assertThat(venue.getActiveSessions()).isEqualTo(104);
+
+        Map<ParkingTicket, ParkingReceipt> receipts = venue.unparkAll(leaving, entry.plusHours(5), BatchMode.BEST_EFFORT);
+        assertThat(receipts.keySet()).containsExactlyElementsOf(leaving.subList(0, 4));
+        assertThat(receipts.get(leaving.get(0)).getFees()).isEqualTo(venue.calculateFee(CAR_OR_SUV, 6));
+        assertThat(receipts.get(leaving.get(3)).getFees()).isEqualTo(venue.calculateFee(MOTORCYCLE_OR_SCOOTER, 6));
+        assertThat(venue.getActiveSessions()).isEqualTo(100);
+        assertThat(venue.getFreeSpots(CAR_OR_SUV)).isEqualTo(3);
+        assertThat(venue.unpark(CAR_OR_SUV, single, entry.plusHours(5)).getFees()).isEqualTo(venue.calculateFee(CAR_OR_SUV, 6));
+    }
+}
@@ -0,0 +1,184 @@
+package com.parkinglot.allocation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static com.parkinglot.allocation.FreeSpotIndex.NO_SPOT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class FreeSpotIndexTest {
+
+    @Test
+    void testClaimsLowestFreeSpotAcrossChunks() {
+        FreeSpotIndex index = new FreeSpotIndex(20_000);
+        for (int spotNumber = 1; spotNumber <= 20_000; spotNumber++) {
+            assertThat(index.claim()).isEqualTo(spotNumber);
+        }
+        assertThat(index.claim()).isEqualTo(NO_SPOT);
+        assertThat(index.getOccupiedCount()).isEqualTo(20_000);
+
+        assertThat(index.release(12_345)).isTrue();
+        assertThat(index.release(4_097)).isTrue();
+        assertThat(index.getFreeCount()).isEqualTo(2);
+        assertThat(index.claim()).isEqualTo(4_097);
+        assertThat(index.claim()).isEqualTo(12_345);
+    }
+
+    @Test
+    void testReleasingFreeSpotIsIgnored() {
+        FreeSpotIndex index = new FreeSpotIndex(3);
+        assertThat(index.claim()).isEqualTo(1);
+
+        assertThat(index.release(1)).isTrue();
+        assertThat(index.release(1)).isFalse();
+        assertThat(index.getFreeCount()).isEqualTo(3);
+        assertThat(index.isFree(1)).isTrue();
+    }
+
+    @Test
+    void testBatchClaimTakesLowestSpotsWordsAtATime() {
+        FreeSpotIndex index = new FreeSpotIndex(10_000);
+        assertThat(index.claim()).isEqualTo(1);
+        assertThat(index.release(1)).isTrue();
+        index.claim(3);
+        index.claim(70);
+
+        int[] spotNumbers = new int[5_000];
+        assertThat(index.claim(spotNumbers, 5_000, false)).isEqualTo(5_000);
+        assertThat(spotNumbers[0]).isEqualTo(1);
+        assertThat(spotNumbers[2]).isEqualTo(4);
+        assertThat(spotNumbers[4_999]).isEqualTo(5_002);
+        assertThat(index.getFreeCount()).isEqualTo(10_000 - 5_002);
+
+        assertThat(index.claim(new int[6_000], 6_000, false)).isZero();
+        assertThat(index.getFreeCount()).isEqualTo(4_998);
+        assertThat(index.claim(new int[6_000], 6_000, true)).isEqualTo(4_998);
+        assertThat(index.claim()).isEqualTo(NO_SPOT);
+    }
+
+    // Range claims must stay inside the range, across word and chunk boundaries, and give back the permit on a miss.
+    @Test
+    void testRangeClaimTakesLowestSpotInRange() {
+        FreeSpotIndex index = new FreeSpotIndex(10_000);
+        assertThat(index.claim(4_090, 4_200)).isEqualTo(4_090);
+        for (int spotNumber = 4_091; spotNumber <= 4_096; spotNumber++) {
+            index.claim(spotNumber);
+        }
+        assertThat(index.claim(4_090, 4_200)).isEqualTo(4_097);
+        assertThat(index.claim(10, 10)).isEqualTo(10);
+        assertThat(index.claim(10, 10)).isEqualTo(NO_SPOT);
+        assertThat(index.claim(9_990, 20_000)).isEqualTo(9_990);
+
+        int free = index.getFreeCount();
+        for (int spotNumber = 65; spotNumber <= 128; spotNumber++) {
+            index.claim(spotNumber);
+        }
+        assertThat(index.claim(65, 128)).isEqualTo(NO_SPOT);
+        assertThat(index.getFreeCount()).isEqualTo(free - 64);
+        assertThat(index.claim()).isEqualTo(1);
+    }
+
+    // A gate probing a full range must never make the last free spot elsewhere look taken.
+    @Test
+    void testRangeProbesDoNotHideFreeSpots() throws Exception {
+        FreeSpotIndex index = new FreeSpotIndex(128);
+        for (int spotNumber = 1; spotNumber < 128; spotNumber++) {
+            index.claim(spotNumber);
+        }
+        AtomicBoolean gatesOpen = new AtomicBoolean(true);
+        ExecutorService prober = Executors.newSingleThreadExecutor();
+        Future<?> probes = prober.submit(() -> {
+            while (gatesOpen.get()) {
+                assertThat(index.claim(1, 127)).isEqualTo(NO_SPOT);
+            }
+        });
+        for (int i = 0; i < 200_000; i++) {
+            assertThat(index.claim()).isEqualTo(128);
+            assertThat(index.release(128)).isTrue();
+        }
+        gatesOpen.set(false);
+        probes.get();
+        prober.shutdown();
+    }
+
+    @Test
+    void testShrinkDrainsOccupiedSpots() {
+        FreeSpotIndex index = new FreeSpotIndex(10);
+        for (int i = 0; i < 6; i++) {
+            index.claim();
+        }
+
+        index.resize(4);
+        assertThat(index.getCapacity()).isEqualTo(4);
+        assertThat(index.getFreeCount()).isZero();
+        assertThat(index.getOccupiedCount()).isEqualTo(6);
+
+        assertThat(index.release(6)).isTrue();
+        assertThat(index.release(2)).isTrue();
+        assertThat(index.getOccupiedCount()).isEqualTo(4);
+        assertThat(index.claim()).isEqualTo(2);
+        assertThat(index.claim()).isEqualTo(NO_SPOT);
+
+        index.resize(5_000);
+        assertThat(index.getFreeCount()).isEqualTo(5_000 - 5);
+        assertThat(index.claim()).isEqualTo(6);
+        assertThat(index.release(5)).isTrue();
+        assertThat(index.claim()).isEqualTo(5);
+    }
+
+    // Gates keep claiming and releasing while the capacity swings; no spot may be lost or handed out twice.
+    @Test
+    void testResizeWhileGatesRun() throws Exception {
+        FreeSpotIndex index = new FreeSpotIndex(1_000);
+        ExecutorService gates = Executors.newFixedThreadPool(4);
+        List<Future<List<Integer>>> futures = new ArrayList<>();
+        for (int gate = 0; gate < 4; gate++) {
+            futures.add(gates.submit(() -> {
+                List<Integer> held = new ArrayList<>();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 50_000; i++) {
+                    if (!held.isEmpty() && random.nextBoolean()) {
+                        assertThat(index.release(held.remove(random.nextInt(held.size())))).isTrue();
+                    } else {
+                        int spotNumber = index.claim();
+                        if (spotNumber != NO_SPOT) {
+                            held.add(spotNumber);
+                        }
+                    }
+                }
+                return held;
+            }));
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (!futures.stream().allMatch(Future::isDone)) {
+            index.resize(random.nextInt(10_000));
+        }
+        gates.shutdown();
+        index.resize(3_000);
+
+        boolean[] held = new boolean[index.getProvisioned() + 1];
+        int occupied = 0;
+        for (Future<List<Integer>> future : futures) {
+            for (int spotNumber : future.get()) {
+                assertThat(held[spotNumber]).isFalse();
+                held[spotNumber] = true;
+                occupied++;
+            }
+        }
+        assertThat(index.getOccupiedCount()).isEqualTo(occupied);
+        for (int spotNumber = 1; spotNumber <= 3_000; spotNumber++) {
+            assertThat(index.isFree(spotNumber)).isNotEqualTo(held[spotNumber]);
+        }
+        assertThat(index.getFreeCount())
+                .isEqualTo(3_000 - IntStream.rangeClosed(1, 3_000).filter(spotNumber -> held[spotNumber]).count());
+    }
+}
@@ -0,0 +1,50 @@
+package com.parkinglot.allocation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static com.parkinglot.allocation.SessionIndex.NO_SESSION;
+import static com.parkinglot.enums.Spot.BUS_OR_TRUCK;
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class SessionIndexTest {
+
+    @Test
+    void testMatchesHashMapUnderChurn() {
+        SessionIndex index = new SessionIndex();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            long ticketNumber = 1 + random.nextInt(20_000);
+            if (random.nextBoolean()) {
+                long session = SessionIndex.session(BUS_OR_TRUCK, random.nextInt(1_000) + 1);
+                index.put(ticketNumber, session);
+                expected.put(ticketNumber, session);
+            } else {
+                assertThat(index.remove(ticketNumber)).isEqualTo(expected.getOrDefault(ticketNumber, NO_SESSION));
+                expected.remove(ticketNumber);
+            }
+        }
+        assertThat(index.size()).isEqualTo(expected.size());
+        for (long ticketNumber = 1; ticketNumber <= 20_000; ticketNumber++) {
+            assertThat(index.get(ticketNumber)).isEqualTo(expected.getOrDefault(ticketNumber, NO_SESSION));
+        }
+    }
+
+    @Test
+    void testSessionPacking() {
+        long session = SessionIndex.session(BUS_OR_TRUCK, Integer.MAX_VALUE);
+        assertThat(SessionIndex.spotOf(session)).isEqualTo(BUS_OR_TRUCK);
+        assertThat(SessionIndex.spotNumberOf(session)).isEqualTo(Integer.MAX_VALUE);
+
+        SessionIndex index = new SessionIndex();
+        index.put(7, session);
+        assertThat(index.remove(7, SessionIndex.session(BUS_OR_TRUCK, 1))).isFalse();
+        assertThat(index.remove(7, session)).isTrue();
+        assertThat(index.remove(7)).isEqualTo(NO_SESSION);
+    }
+}
@@ -0,0 +1,163 @@
+package com.parkinglot.allocation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.parkinglot.allocation.FreeSpotIndex.NO_SPOT;
+import static com.parkinglot.enums.Spot.CAR_OR_SUV;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+
+class SpotPoolTest {
+
+    @Test
+    void testReleasedSpotsGoToWaitersInArrivalOrder() throws Exception {
+        SpotPool pool = new SpotPool(CAR_OR_SUV, 2);
+        pool.claim();
+        pool.claim();
+        ExecutorService gates = Executors.newCachedThreadPool();
+        List<Future<Integer>> waiters = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            waiters.add(gates.submit(() -> pool.claim(1, TimeUnit.MINUTES)));
+            while (pool.getWaitingCount() <= i) {
+                Thread.onSpinWait();
+            }
+        }
+
+        assertThat(pool.release(2)).isTrue();
+        assertThat(waiters.get(0).get()).isEqualTo(2);
+        // A gate arriving now cannot jump the line.
+        assertThat(pool.claim()).isEqualTo(NO_SPOT);
+        assertThat(pool.release(1)).isTrue();
+        assertThat(waiters.get(1).get()).isEqualTo(1);
+        assertThat(pool.getFreeCount()).isZero();
+
+        pool.resize(3);
+        assertThat(waiters.get(2).get()).isEqualTo(3);
+        assertThat(pool.getWaitingCount()).isZero();
+        gates.shutdown();
+    }
+
+    @Test
+    void testTimedOutWaiterIsSkipped() throws Exception {
+        SpotPool pool = new SpotPool(CAR_OR_SUV, 1);
+        pool.claim();
+        assertThat(pool.claim(10, TimeUnit.MILLISECONDS)).isEqualTo(NO_SPOT);
+        assertThat(pool.getWaitingCount()).isZero();
+
+        CompletableFuture<Integer> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pool.claim(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (pool.getWaitingCount() == 0) {
+            Thread.onSpinWait();
+        }
+        pool.release(1);
+        assertThat(waiter.get()).isEqualTo(1);
+    }
+
+    // Gates wait with short timeouts while others leave; every spot must end up held once or free.
+    @Test
+    void testWaitersNeverLoseOrDuplicateSpots() throws Exception {
+        SpotPool pool = new SpotPool(CAR_OR_SUV, 8);
+        ExecutorService gates = Executors.newFixedThreadPool(6);
+        List<Future<List<Integer>>> futures = new ArrayList<>();
+        for (int gate = 0; gate < 6; gate++) {
+            futures.add(gates.submit(() -> {
+                List<Integer> held = new ArrayList<>();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 20_000; i++) {
+                    if (!held.isEmpty() && random.nextBoolean()) {
+                        assertThat(pool.release(held.remove(random.nextInt(held.size())))).isTrue();
+                    } else {
+                        int spotNumber = pool.claim(random.nextInt(50), TimeUnit.MICROSECONDS);
+                        if (spotNumber != NO_SPOT) {
+                            held.add(spotNumber);
+                        }
+                    }
+                }
+                return held;
+            }));
+        }
+        boolean[] held = new boolean[9];
+        int occupied = 0;
+        for (Future<List<Integer>> future : futures) {
+            for (int spotNumber : future.get()) {
+                assertThat(held[spotNumber]).isFalse();
+                held[spotNumber] = true;
+                occupied++;
+            }
+        }
+        gates.shutdown();
+        assertThat(pool.getWaitingCount()).isZero();
+        assertThat(pool.getOccupiedCount()).isEqualTo(occupied);
+        assertThat(pool.getFreeCount()).isEqualTo(8 - occupied);
+    }
+
+    // Gates racing on a zoned pool must never share a spot, and zone counters must settle on the bitmap.
+    @Test
+    void testZoneCountersWhileGatesRun() throws Exception {
+        int[][] preferences = {{0, 1, 2, 3}, {3, 2, 1, 0}, {1, 3, 0, 2}, {2, 0, 3, 1}};
+        SpotPool pool = new SpotPool(CAR_OR_SUV, new ZoneIndex(new int[]{100, 70, 64, 130}, preferences),
+                SessionStorage.HEAP);
+        ExecutorService gates = Executors.newFixedThreadPool(preferences.length);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int gate = 0; gate < preferences.length; gate++) {
+            int gateIndex = gate;
+            futures.add(gates.submit(() -> {
+                List<Integer> held = new ArrayList<>();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 50_000; i++) {
+                    if (!held.isEmpty() && random.nextInt(2) == 0) {
+                        assertThat(pool.release(held.remove(random.nextInt(held.size())))).isTrue();
+                        continue;
+                    }
+                    int spotNumber = pool.claimNearest(gateIndex);
+                    if (spotNumber != NO_SPOT) {
+                        pool.occupy(spotNumber, gateIndex + 1, 0);
+                        held.add(spotNumber);
+                    }
+                }
+                for (int spotNumber : held) {
+                    assertThat(pool.getTicketNumber(spotNumber)).isEqualTo(gateIndex + 1);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        gates.shutdown();
+
+        ZoneIndex zones = pool.getZones();
+        int occupied = 0;
+        for (int zone = 0; zone < zones.getZoneCount(); zone++) {
+            int free = 0;
+            for (int spotNumber = zones.getFirstSpotNumber(zone); spotNumber <= zones.getLastSpotNumber(zone); spotNumber++) {
+                free += pool.isFree(spotNumber) ? 1 : 0;
+            }
+            assertThat(zones.getFreeCount(zone)).isEqualTo(free);
+            occupied += zones.getOccupiedCount(zone);
+        }
+        assertThat(occupied).isEqualTo(pool.getOccupiedCount());
+    }
+
+    @Test
+    void testOffHeapCapacityBeyondOneBufferIsRejected() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> SessionStorage.OFF_HEAP.create(OffHeapSessionStore.MAX_CAPACITY + 1))
+                .withMessageContaining(String.valueOf(OffHeapSessionStore.MAX_CAPACITY + 1));
+    }
+}
@@ -0,0 +1,28 @@
+package com.parkinglot.allocation;
+
+import org.junit.jupiter.api.Test;
+
+import static com.parkinglot.allocation.FreeSpotIndex.NO_SPOT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class WaitlistTest {
+
+    // Gates timing out behind a live waiter in a full lot must not pile up in the queue.
+    @Test
+    void testTimedOutWaitersAreUnlinked() throws InterruptedException {
+        Waitlist waitlist = new Waitlist();
+        Waitlist.Waiter live = waitlist.join();
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(waitlist.await(waitlist.join(), System.nanoTime())).isEqualTo(NO_SPOT);
+        }
+        assertThat(waitlist.size()).isEqualTo(1);
+        assertThat(waitlist.queueLength()).isEqualTo(1);
+
+        assertThat(waitlist.handOff(7)).isTrue();
+        assertThat(live.getSpotNumber()).isEqualTo(7);
+        assertThat(waitlist.cancel(live)).isFalse();
+        assertThat(waitlist.size()).isZero();
+        assertThat(waitlist.queueLength()).isZero();
+    }
+}
@@ -0,0 +1,72 @@
+package com.parkinglot.availability;
+
+import com.parkinglot.ParkingVenue;
+import com.parkinglot.entity.ParkingTicket;
+import com.parkinglot.exceptions.ParkingIsFullException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static com.parkinglot.enums.Spot.BUS_OR_TRUCK;
+import static com.parkinglot.enums.Spot.CAR_OR_SUV;
+import static com.parkinglot.enums.Venue.STADIUM;
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class AvailabilityBoardTest {
+
+    private static final LocalDateTime ENTRY = LocalDateTime.of(2022, 5, 29, 14, 0, 0);
+
+    @Test
+    void testPublishesOnlyChangedCounts() throws ParkingIsFullException {
+        ParkingVenue venue = ParkingVenue.createParkingVenue(STADIUM, Map.of(CAR_OR_SUV, 100));
+        AvailabilityBoard board = new AvailabilityBoard(venue);
+        assertThat(board.current().getVersion()).isZero();
+        assertThat(board.current().getFreeSpots(CAR_OR_SUV)).isEqualTo(100);
+        assertThat(board.current().getCapacity(BUS_OR_TRUCK)).isZero();
+        assertThat(board.publish()).isFalse();
+
+        ParkingTicket ticket = venue.park(CAR_OR_SUV, ENTRY);
+        Availability before = board.current();
+        assertThat(board.publish()).isTrue();
+        assertThat(before.getFreeSpots(CAR_OR_SUV)).isEqualTo(100);
+        assertThat(board.current().getVersion()).isEqualTo(1);
+        assertThat(board.current().getFreeSpots(CAR_OR_SUV)).isEqualTo(99);
+        assertThat(board.current().getOccupiedSpots(CAR_OR_SUV)).isEqualTo(1);
+
+        venue.unpark(CAR_OR_SUV, ticket, ENTRY.plusHours(1));
+        venue.resize(CAR_OR_SUV, 120);
+        assertThat(board.publish()).isTrue();
+        assertThat(board.current().getVersion()).isEqualTo(2);
+        assertThat(board.current().getCapacity(CAR_OR_SUV)).isEqualTo(120);
+    }
+
+    @Test
+    void testCoalescesChangesPerSubscriber() throws ParkingIsFullException {
+        ParkingVenue venue = ParkingVenue.createParkingVenue(STADIUM, Map.of(CAR_OR_SUV, 100));
+        AvailabilityBoard board = new AvailabilityBoard(venue);
+        List<Availability> seen = new ArrayList<>();
+        Consumer<Availability> display = seen::add;
+        board.subscribe(display);
+        board.subscribe(availability -> {
+            throw new IllegalStateException("sign offline");
+        });
+
+        for (int i = 0; i < 10; i++) {
+            venue.park(CAR_OR_SUV, ENTRY);
+        }
+        board.publish();
+        venue.park(CAR_OR_SUV, ENTRY);
+        board.publish();
+        assertThat(seen).extracting(availability -> availability.getFreeSpots(CAR_OR_SUV)).containsExactly(90, 89);
+
+        assertThat(board.unsubscribe(display)).isTrue();
+        venue.park(CAR_OR_SUV, ENTRY);
+        board.publish();
+        assertThat(seen).hasSize(2);
+    }
+}
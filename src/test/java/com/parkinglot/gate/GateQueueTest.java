@@ -0,0 +1,129 @@
+package com.parkinglot.gate;
+
+import com.parkinglot.ParkingVenue;
+import com.parkinglot.entity.ParkingTicket;
+import com.parkinglot.enums.Spot;
+import com.parkinglot.enums.Venue;
+import com.parkinglot.exceptions.GateOverloadedException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.parkinglot.enums.Spot.CAR_OR_SUV;
+import static com.parkinglot.enums.Venue.STADIUM;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+
+class GateQueueTest {
+
+    private static final LocalDateTime ENTRY = LocalDateTime.of(2022, 5, 29, 14, 0, 0);
+
+    @Test
+    void testConcurrentGatesThroughQueue() throws Exception {
+        ParkingVenue venue = ParkingVenue.createParkingVenue(STADIUM, Map.of(CAR_OR_SUV, 1_000));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            GateQueue gates = new GateQueue(venue, executor, 2_000, 64);
+            List<CompletableFuture<Optional<ParkingTicket>>> parks = new ArrayList<>();
+            for (int i = 0; i < 1_200; i++) {
+                parks.add(gates.park(CAR_OR_SUV, ENTRY));
+            }
+            CompletableFuture.allOf(parks.toArray(new CompletableFuture<?>[0])).get();
+
+            Set<Integer> spots = new HashSet<>();
+            List<ParkingTicket> tickets = new ArrayList<>();
+            for (CompletableFuture<Optional<ParkingTicket>> park : parks) {
+                park.get().ifPresent(ticket -> {
+                    tickets.add(ticket);
+                    spots.add(ticket.getSpotNumber());
+                });
+            }
+            assertThat(tickets).hasSize(1_000);
+            assertThat(spots).hasSize(1_000);
+
+            List<CompletableFuture<?>> unparks = new ArrayList<>();
+            for (ParkingTicket ticket : tickets) {
+                unparks.add(gates.unpark(CAR_OR_SUV, ticket, ENTRY.plusHours(1)));
+            }
+            CompletableFuture.allOf(unparks.toArray(new CompletableFuture<?>[0])).get();
+            assertThat(venue.getFreeSpots(CAR_OR_SUV)).isEqualTo(1_000);
+            assertThat(gates.getPendingEvents()).isZero();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testFullQueueRejectsEvents() throws Exception {
+        ParkingVenue venue = ParkingVenue.createParkingVenue(STADIUM, Map.of(CAR_OR_SUV, 10));
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        GateQueue gates = new GateQueue(venue, tasks::add, 2, 1);
+
+        CompletableFuture<Optional<ParkingTicket>> first = gates.park(CAR_OR_SUV, ENTRY);
+        CompletableFuture<Optional<ParkingTicket>> second = gates.park(CAR_OR_SUV, ENTRY);
+        assertThatExceptionOfType(ExecutionException.class)
+                .isThrownBy(() -> gates.park(CAR_OR_SUV, ENTRY).get())
+                .withCauseInstanceOf(GateOverloadedException.class);
+
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+        assertThat(first.get()).isPresent();
+        assertThat(second.get()).isPresent();
+        assertThat(gates.park(CAR_OR_SUV, ENTRY)).isNotCompleted();
+    }
+
+    @Test
+    void testErrorInEventDoesNotWedgeQueue() throws Exception {
+        ParkingVenue venue = new ParkingVenue() {
+            private boolean failed;
+
+            @Override
+            protected Set<Spot> getSupportedSpot() {
+                return Set.of(CAR_OR_SUV);
+            }
+
+            @Override
+            public Venue getType() {
+                return STADIUM;
+            }
+
+            @Override
+            public Optional<ParkingTicket> tryPark(Spot spot, LocalDateTime entryDateTime) {
+                if (!failed) {
+                    failed = true;
+                    throw new StackOverflowError();
+                }
+                return Optional.empty();
+            }
+        };
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        GateQueue gates = new GateQueue(venue, tasks::add, 10, 10);
+
+        CompletableFuture<Optional<ParkingTicket>> first = gates.park(CAR_OR_SUV, ENTRY);
+        CompletableFuture<Optional<ParkingTicket>> second = gates.park(CAR_OR_SUV, ENTRY);
+        assertThatExceptionOfType(StackOverflowError.class).isThrownBy(() -> tasks.poll().run());
+        assertThatExceptionOfType(ExecutionException.class)
+                .isThrownBy(first::get)
+                .withCauseInstanceOf(StackOverflowError.class);
+
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+        assertThat(second.get()).isEmpty();
+        assertThat(gates.getPendingEvents()).isZero();
+    }
+}
@@ -0,0 +1,257 @@
+package com.parkinglot.journal;
+
+import com.parkinglot.ParkingVenue;
+import com.parkinglot.entity.ParkingReceipt;
+import com.parkinglot.entity.ParkingTicket;
+import com.parkinglot.enums.BatchMode;
+import com.parkinglot.enums.Spot;
+import com.parkinglot.exceptions.ParkingIsFullException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.parkinglot.enums.Spot.CAR_OR_SUV;
+import static com.parkinglot.enums.Spot.MOTORCYCLE_OR_SCOOTER;
+import static com.parkinglot.enums.Venue.AIRPORT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+
+class JournalRecoveryTest {
+
+    private static final int VEHICLES = 3_000;
+    private static final int RECORDS_PER_SEGMENT = 1_024;
+    private static final LocalDateTime ENTRY = LocalDateTime.of(2022, 6, 1, 0, 0, 0);
+    private static final String READY = "READY";
+
+    // A gate process is killed without closing its journal; a new process must pick up where it stopped.
+    @Test
+    void testKillAndRecover(@TempDir Path directory) throws Exception {
+        Process gate = new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"), JournalRecoveryTest.class.getName(), directory.toString())
+                .redirectErrorStream(true)
+                .start();
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(gate.getInputStream()))) {
+            assertThat(output.readLine()).isEqualTo(READY);
+        }
+        gate.destroyForcibly();
+        assertThat(gate.waitFor(1, TimeUnit.MINUTES)).isTrue();
+
+        try (Journal journal = Journal.open(directory, RECORDS_PER_SEGMENT, true)) {
+            assertThat(journal.getNextPosition()).isEqualTo(VEHICLES + VEHICLES / 3);
+            ParkingVenue venue = ParkingVenue.createParkingVenue(AIRPORT,
+                    Map.of(MOTORCYCLE_OR_SCOOTER, 10, CAR_OR_SUV, VEHICLES), journal);
+
+            // Spot 1 was freed before the crash, every ticket and receipt number continues.
+            ParkingTicket ticket = venue.park(CAR_OR_SUV, ENTRY);
+            assertThat(ticket.getTicketNumber()).isEqualTo(VEHICLES + 1);
+            assertThat(ticket.getSpotNumber()).isEqualTo(1);
+
+            ParkingReceipt receipt = venue.unpark(CAR_OR_SUV, new ParkingTicket(2, 2, ENTRY.plusMinutes(1)),
+                    ENTRY.plusHours(13));
+            assertThat(receipt.getReceiptNumber()).isEqualTo(VEHICLES / 3 + 1);
+            assertThat(receipt.getFees()).isEqualTo(80);
+        }
+
+        try (Journal journal = Journal.open(directory, RECORDS_PER_SEGMENT, true)) {
+            ParkingVenue venue = ParkingVenue.createParkingVenue(AIRPORT,
+                    Map.of(MOTORCYCLE_OR_SCOOTER, 10, CAR_OR_SUV, VEHICLES), journal);
+            assertThat(venue.park(CAR_OR_SUV, ENTRY).getSpotNumber()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void testReplayFromEmptyJournal(@TempDir Path directory) throws Exception {
+        try (Journal journal = Journal.open(directory)) {
+            ParkingVenue venue = ParkingVenue.createParkingVenue(AIRPORT, Map.of(CAR_OR_SUV, 1), journal);
+            assertThat(venue.park(CAR_OR_SUV, ENTRY).getTicketNumber()).isEqualTo(1);
+        }
+    }
+
+    // A record that cannot be written must fail the journal instead of wedging every later commit.
+    @Test
+    void testFailedAppendFailsJournal(@TempDir Path parent) throws Exception {
+        Path directory = parent.resolve("journal");
+        Journal journal = Journal.open(directory, 2, true);
+        journal.appendPark(CAR_OR_SUV, 1, 1, 0);
+        deleteDirectory(directory);
+
+        assertThat(journal.appendPark(CAR_OR_SUV, 2, 2, 0)).isEqualTo(1);
+        assertThatExceptionOfType(UncheckedIOException.class).isThrownBy(() -> journal.appendPark(CAR_OR_SUV, 3, 3, 0));
+        assertThatIllegalStateException().isThrownBy(() -> journal.appendPark(CAR_OR_SUV, 4, 4, 0))
+                .withMessageEndingWith("failed to write record [2]");
+        journal.commit(1);
+        assertThatIllegalStateException().isThrownBy(() -> journal.commit(2));
+        assertThatIllegalStateException().isThrownBy(journal::sync);
+        assertThatIllegalStateException().isThrownBy(journal::close);
+    }
+
+    // An exit that cannot be journaled must leave the vehicle parked, so its ticket can be presented again.
+    @Test
+    void testFailedUnparkKeepsVehicleParked(@TempDir Path parent) throws Exception {
+        Path directory = parent.resolve("journal");
+        Journal journal = Journal.open(directory, 2, true);
+        ParkingVenue venue = ParkingVenue.createParkingVenue(AIRPORT, Map.of(CAR_OR_SUV, 3), journal);
+        ParkingTicket first = venue.park(CAR_OR_SUV, ENTRY);
+        ParkingTicket second = venue.park(CAR_OR_SUV, ENTRY);
+        deleteDirectory(directory);
+
+        assertThatExceptionOfType(UncheckedIOException.class)
+                .isThrownBy(() -> venue.unpark(CAR_OR_SUV, first, ENTRY.plusHours(1)));
+        assertThatIllegalStateException().isThrownBy(() -> venue.unpark(first.getTicketNumber(), ENTRY.plusHours(1)));
+        assertThatIllegalStateException().isThrownBy(() -> venue.unparkAll(List.of(first, second), ENTRY.plusHours(1),
+                BatchMode.BEST_EFFORT));
+        assertThat(venue.getActiveSessions()).isEqualTo(2);
+        assertThat(venue.getOccupiedSpots(CAR_OR_SUV)).isEqualTo(2);
+        assertThat(venue.getTicket(first.getTicketNumber())).contains(first);
+        assertThat(venue.getTicket(second.getTicketNumber())).contains(second);
+    }
+
+    // Vehicles parked on spots added by a resize are still there after a restart with the original layout.
+    @Test
+    void testRecoverSessionsAboveConfiguredCapacity(@TempDir Path directory) throws Exception {
+        List<ParkingTicket> tickets = new ArrayList<>();
+        try (Journal journal = Journal.open(directory)) {
+            ParkingVenue venue = ParkingVenue.createParkingVenue(AIRPORT, Map.of(CAR_OR_SUV, 2), journal);
+            venue.resize(CAR_OR_SUV, 6);
+            for (int i = 0; i < 6; i++) {
+                tickets.add(venue.park(CAR_OR_SUV, ENTRY));
+            }
+            venue.snapshot();
+            venue.unpark(CAR_OR_SUV, tickets.get(3), ENTRY.plusHours(1));
+            tickets.set(3, venue.park(CAR_OR_SUV, ENTRY));
+        }
+
+        try (Journal journal = Journal.open(directory)) {
+            ParkingVenue venue = ParkingVenue.createParkingVenue(AIRPORT, Map.of(CAR_OR_SUV, 2), journal);
+            assertThat(venue.getOccupiedSpots(CAR_OR_SUV)).isEqualTo(6);
+            assertThat(venue.unpark(CAR_OR_SUV, tickets.get(5), ENTRY.plusHours(1)).getFees()).isEqualTo(60);
+            assertThat(venue.unpark(CAR_OR_SUV, tickets.get(0), ENTRY.plusHours(1)).getFees()).isEqualTo(60);
+            assertThat(venue.getOccupiedSpots(CAR_OR_SUV)).isEqualTo(4);
+            assertThat(venue.park(CAR_OR_SUV, ENTRY).getSpotNumber()).isEqualTo(1);
+            assertThat(venue.tryPark(CAR_OR_SUV, ENTRY)).isEmpty();
+        }
+    }
+
+    // Snapshots taken while gates keep parking must recover to exactly the live state and drop old segments.
+    @Test
+    void testSnapshotWhileGatesRun(@TempDir Path directory, @TempDir Path copy) throws Exception {
+        Map<Spot, Integer> spots = Map.of(MOTORCYCLE_OR_SCOOTER, 50, CAR_OR_SUV, 200);
+        Map<Spot, List<String>> expected = new EnumMap<>(Spot.class);
+        try (Journal journal = Journal.open(directory, RECORDS_PER_SEGMENT, false)) {
+            ParkingVenue live = ParkingVenue.createParkingVenue(AIRPORT, spots, journal);
+            ExecutorService gates = Executors.newFixedThreadPool(4);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int gate = 0; gate < 4; gate++) {
+                futures.add(gates.submit(() -> {
+                    List<Map.Entry<Spot, ParkingTicket>> parked = new ArrayList<>();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 5_000; i++) {
+                        if (!parked.isEmpty() && random.nextInt(3) == 0) {
+                            Map.Entry<Spot, ParkingTicket> vehicle = parked.remove(random.nextInt(parked.size()));
+                            live.unpark(vehicle.getKey(), vehicle.getValue(), ENTRY.plusHours(2));
+                            continue;
+                        }
+                        Spot spot = random.nextBoolean() ? CAR_OR_SUV : MOTORCYCLE_OR_SCOOTER;
+                        try {
+                            parked.add(Map.entry(spot, live.park(spot, ENTRY)));
+                        } catch (ParkingIsFullException e) {
+                            // the gate simply turns the vehicle away
+                        }
+                    }
+                    return null;
+                }));
+            }
+            while (!futures.stream().allMatch(Future::isDone)) {
+                live.snapshot();
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            gates.shutdown();
+            live.snapshot();
+            journal.sync();
+            assertThat(journal.getStartPosition()).isPositive();
+
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.collect(Collectors.toList())) {
+                    Files.copy(file, copy.resolve(file.getFileName()));
+                }
+            }
+            for (Spot spot : spots.keySet()) {
+                expected.put(spot, fill(live, spot));
+            }
+        }
+
+        try (Stream<Path> files = Files.list(copy)) {
+            assertThat(files.filter(path -> path.toString().endsWith(".bin")).count()).isEqualTo(1);
+        }
+        try (Journal journal = Journal.open(copy, RECORDS_PER_SEGMENT, false)) {
+            ParkingVenue recovered = ParkingVenue.createParkingVenue(AIRPORT, spots, journal);
+            for (Spot spot : spots.keySet()) {
+                assertThat(fill(recovered, spot)).isEqualTo(expected.get(spot));
+            }
+        }
+    }
+
+    /**
+     * Gate process for {@link #testKillAndRecover}: parks {@link #VEHICLES} cars, returns every third
+     * one and then waits to be killed.
+     */
+    public static void main(String[] args) throws ParkingIsFullException, InterruptedException {
+        Journal journal = Journal.open(Paths.get(args[0]), RECORDS_PER_SEGMENT, true);
+        ParkingVenue venue = ParkingVenue.createParkingVenue(AIRPORT,
+                Map.of(MOTORCYCLE_OR_SCOOTER, 10, CAR_OR_SUV, VEHICLES), journal);
+        List<ParkingTicket> tickets = new ArrayList<>();
+        for (int i = 0; i < VEHICLES; i++) {
+            tickets.add(venue.park(CAR_OR_SUV, ENTRY.plusMinutes(i)));
+        }
+        for (int i = 0; i < VEHICLES; i += 3) {
+            venue.unpark(CAR_OR_SUV, tickets.get(i), ENTRY.plusDays(1));
+        }
+        System.out.println(READY);
+        System.out.flush();
+        Thread.sleep(TimeUnit.MINUTES.toMillis(5));
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    private static List<String> fill(ParkingVenue venue, Spot spot) {
+        List<String> tickets = new ArrayList<>();
+        while (true) {
+            try {
+                ParkingTicket ticket = venue.park(spot, ENTRY);
+                tickets.add(ticket.getSpotNumber() + "/" + ticket.getTicketNumber());
+            } catch (ParkingIsFullException e) {
+                return tickets;
+            }
+        }
+    }
+}
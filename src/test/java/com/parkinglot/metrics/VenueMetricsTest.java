@@ -0,0 +1,82 @@
+package com.parkinglot.metrics;
+
+import com.parkinglot.ParkingVenue;
+import com.parkinglot.entity.ParkingTicket;
+import com.parkinglot.exceptions.ParkingIsFullException;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static com.parkinglot.enums.Spot.CAR_OR_SUV;
+import static com.parkinglot.enums.Spot.MOTORCYCLE_OR_SCOOTER;
+import static com.parkinglot.enums.Venue.STADIUM;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+
+class VenueMetricsTest {
+
+    private static final LocalDateTime ENTRY = LocalDateTime.of(2022, 5, 1, 14, 0, 0);
+
+    @Test
+    void testCountersGaugesAndExport() throws Exception {
+        ParkingVenue venue = ParkingVenue.createParkingVenue(STADIUM, Map.of(MOTORCYCLE_OR_SCOOTER, 1, CAR_OR_SUV, 3));
+        VenueMetrics metrics = venue.enableMetrics("east-stand");
+
+        ParkingTicket ticket = venue.park(MOTORCYCLE_OR_SCOOTER, ENTRY);
+        assertThatExceptionOfType(ParkingIsFullException.class)
+                .isThrownBy(() -> venue.park(MOTORCYCLE_OR_SCOOTER, ENTRY));
+        venue.park(CAR_OR_SUV, ENTRY);
+        venue.unpark(MOTORCYCLE_OR_SCOOTER, ticket, ENTRY.plusHours(1));
+
+        assertThat(metrics.getParks(MOTORCYCLE_OR_SCOOTER)).isEqualTo(1);
+        assertThat(metrics.getRejections(MOTORCYCLE_OR_SCOOTER)).isEqualTo(1);
+        assertThat(metrics.getUnparks(MOTORCYCLE_OR_SCOOTER)).isEqualTo(1);
+        assertThat(metrics.getParkLatency().getCount()).isBetween(0L, 3L);
+
+        try (MetricsServer server = new MetricsServer(new InetSocketAddress("127.0.0.1", 0))) {
+            server.register(metrics);
+            String body;
+            try (InputStream in = new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/metrics").openStream()) {
+                body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            assertThat(body)
+                    .contains("# TYPE parking_spots_free gauge\n")
+                    .contains("parking_spots_free{venue=\"east-stand\",spot=\"CAR_OR_SUV\"} 2\n")
+                    .contains("parking_spots_occupied{venue=\"east-stand\",spot=\"CAR_OR_SUV\"} 1\n")
+                    .contains("parking_park_rejected_total{venue=\"east-stand\",spot=\"MOTORCYCLE_OR_SCOOTER\"} 1\n")
+                    .contains("parking_park_latency_seconds_count{venue=\"east-stand\"} ");
+        }
+    }
+
+    @Test
+    void testVenueLabelIsEscaped() {
+        ParkingVenue venue = ParkingVenue.createParkingVenue(STADIUM, Map.of(CAR_OR_SUV, 3));
+        StringBuilder out = new StringBuilder();
+        VenueMetrics.writePrometheus(out, List.of(venue.enableMetrics("north \"A\"\\\nstand")));
+
+        assertThat(out.toString()).contains("parking_spots_free{venue=\"north \\\"A\\\"\\\\\\nstand\",spot=\"CAR_OR_SUV\"} 3\n");
+    }
+
+    @Test
+    void testHistogramQuantilesStayWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 100_000; nanos++) {
+            histogram.record(nanos);
+        }
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        assertThat(snapshot.getCount()).isEqualTo(100_000);
+        assertThat(snapshot.getValueAtQuantile(0.5)).isBetween(50_000L, 56_250L);
+        assertThat(snapshot.getValueAtQuantile(0.99)).isBetween(99_000L, 111_375L);
+        for (long value = 0; value < 1L << 20; value += 997) {
+            assertThat(LatencyHistogram.highestValueOf(LatencyHistogram.bucketOf(value))).isBetween(value, value + value / 8);
+        }
+    }
+}
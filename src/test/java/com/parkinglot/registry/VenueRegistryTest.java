@@ -0,0 +1,63 @@
+package com.parkinglot.registry;
+
+import com.parkinglot.entity.ParkingTicket;
+import com.parkinglot.exceptions.ParkingIsFullException;
+import com.parkinglot.exceptions.VenueNotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static com.parkinglot.enums.Spot.CAR_OR_SUV;
+import static com.parkinglot.enums.Spot.MOTORCYCLE_OR_SCOOTER;
+import static com.parkinglot.enums.Venue.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+
+class VenueRegistryTest {
+
+    private static final LocalDateTime ENTRY = LocalDateTime.of(2022, 5, 29, 14, 0, 0);
+
+    @Test
+    void testTenThousandVenues() throws Exception {
+        try (VenueRegistry registry = new VenueRegistry(4)) {
+            List<CompletableFuture<Void>> registrations = new ArrayList<>();
+            for (int i = 0; i < 10_000; i++) {
+                registrations.add(registry.register("venue-" + i, i % 2 == 0 ? "north" : "south",
+                        i % 3 == 0 ? MALL : i % 3 == 1 ? STADIUM : AIRPORT,
+                        Map.of(MOTORCYCLE_OR_SCOOTER, 5, CAR_OR_SUV, 20)));
+            }
+            CompletableFuture.allOf(registrations.toArray(new CompletableFuture<?>[0])).get();
+            assertThat(registry.size().get()).isEqualTo(10_000);
+            assertThat(registry.getFreeSpots("north", CAR_OR_SUV).get()).isEqualTo(5_000 * 20);
+
+            ParkingTicket ticket = registry.park("venue-42", CAR_OR_SUV, ENTRY).get();
+            assertThat(ticket.getTicketNumber()).isEqualTo(1);
+            assertThat(registry.getFreeSpots("north", CAR_OR_SUV).get()).isEqualTo(5_000 * 20 - 1);
+            assertThat(registry.getFreeSpots("south", CAR_OR_SUV).get()).isEqualTo(5_000 * 20);
+
+            assertThat(registry.unpark("venue-42", CAR_OR_SUV, ticket, ENTRY.plusHours(2)).get().getFees()).isEqualTo(60);
+            assertThat(registry.getFreeSpots("north", CAR_OR_SUV).get()).isEqualTo(5_000 * 20);
+        }
+    }
+
+    @Test
+    void testFailuresCompleteExceptionally() throws Exception {
+        try (VenueRegistry registry = new VenueRegistry(2)) {
+            registry.register("mall", "centre", MALL, Map.of(CAR_OR_SUV, 1)).get();
+            registry.park("mall", CAR_OR_SUV, ENTRY).get();
+
+            assertThatExceptionOfType(ExecutionException.class)
+                    .isThrownBy(() -> registry.park("mall", CAR_OR_SUV, ENTRY).get())
+                    .withCauseInstanceOf(ParkingIsFullException.class);
+            assertThatExceptionOfType(ExecutionException.class)
+                    .isThrownBy(() -> registry.park("stadium", CAR_OR_SUV, ENTRY).get())
+                    .withCauseInstanceOf(VenueNotFoundException.class);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.parkinglot.replay;
+
+import com.parkinglot.enums.Spot;
+import com.parkinglot.enums.Venue;
+import com.parkinglot.exceptions.SpotNotFoundException;
+import com.parkinglot.tariff.Tariff;
+import com.parkinglot.tariff.TariffEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.parkinglot.enums.Spot.*;
+import static com.parkinglot.enums.Venue.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+
+class TariffReplayTest {
+
+    private static final long START = 1_640_995_200L;
+    private static final Spot[][] SPOTS = {
+            {MOTORCYCLE_OR_SCOOTER, CAR_OR_SUV, BUS_OR_TRUCK},
+            {MOTORCYCLE_OR_SCOOTER, CAR_OR_SUV},
+            {MOTORCYCLE_OR_SCOOTER, CAR_OR_SUV}};
+
+    private final Tariff current = TariffEngine.getDefault().getTariff();
+
+    @Test
+    void testReplayMatchesRowByRowPricing(@TempDir Path directory) throws IOException {
+        Tariff proposed = proposedTariff();
+        long[][] expectedCurrent = new long[Venue.values().length][Spot.values().length];
+        long[][] expectedProposed = new long[Venue.values().length][Spot.values().length];
+        Path file = directory.resolve("sessions.bin");
+        Random random = new Random(7);
+        try (SessionFile.Writer writer = SessionFile.create(file)) {
+            for (int i = 0; i < 500_000; i++) {
+                Venue venue = Venue.values()[random.nextInt(3)];
+                Spot spot = SPOTS[venue.ordinal()][random.nextInt(SPOTS[venue.ordinal()].length)];
+                long entry = START + random.nextInt(365 * 24 * 3600);
+                long exit = entry + random.nextInt(i % 100 == 0 ? 40 * 24 * 3600 : 12 * 3600);
+                writer.add(venue, spot, entry, exit);
+                long hours = (exit - entry) / 3600 + 1;
+                expectedCurrent[venue.ordinal()][spot.ordinal()] += current.fee(venue, spot, hours);
+                expectedProposed[venue.ordinal()][spot.ordinal()] += proposed.fee(venue, spot, hours);
+            }
+        }
+
+        TariffComparison comparison = TariffReplay.compare(file, current, proposed, new ForkJoinPool(4));
+        for (Venue venue : Venue.values()) {
+            for (Spot spot : SPOTS[venue.ordinal()]) {
+                assertThat(comparison.getCurrentRevenue(venue, spot)).isEqualTo(expectedCurrent[venue.ordinal()][spot.ordinal()]);
+                assertThat(comparison.getProposedRevenue(venue, spot)).isEqualTo(expectedProposed[venue.ordinal()][spot.ordinal()]);
+            }
+        }
+        assertThat(comparison.getRevenueDelta(MALL, CAR_OR_SUV)).isZero();
+        assertThat(comparison.getRevenueDelta(AIRPORT, CAR_OR_SUV)).isPositive();
+        assertThat(comparison.toString()).contains("AIRPORT CAR_OR_SUV sessions=");
+    }
+
+    @Test
+    void testSessionWithoutTariff(@TempDir Path directory) {
+        Path file = directory.resolve("sessions.bin");
+        try (SessionFile.Writer writer = SessionFile.create(file)) {
+            writer.add(STADIUM, BUS_OR_TRUCK, START, START + 3600);
+        }
+        assertThatExceptionOfType(SpotNotFoundException.class)
+                .isThrownBy(() -> TariffReplay.compare(file, current, current))
+                .withMessage("Spot type [BUS_OR_TRUCK] is not supported in the venue [STADIUM]");
+    }
+
+    private static Tariff proposedTariff() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = TariffEngine.class.getResourceAsStream("/tariffs.properties")) {
+            properties.load(in);
+        }
+        properties.setProperty("AIRPORT.CAR_OR_SUV.bands", "12:70,24:90");
+        properties.setProperty("AIRPORT.CAR_OR_SUV.daily", "110");
+        return Tariff.compile(properties);
+    }
+}
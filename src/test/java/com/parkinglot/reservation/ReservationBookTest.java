@@ -0,0 +1,106 @@
+package com.parkinglot.reservation;
+
+import com.parkinglot.ParkingVenue;
+import com.parkinglot.entity.ParkingTicket;
+import com.parkinglot.exceptions.ParkingIsFullException;
+import com.parkinglot.exceptions.ReservationNotHeldException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static com.parkinglot.enums.ReservationState.*;
+import static com.parkinglot.enums.Spot.CAR_OR_SUV;
+import static com.parkinglot.enums.Venue.AIRPORT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+
+class ReservationBookTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2022, 5, 29, 14, 0, 0);
+
+    @Test
+    void testMillionHoldsExpireOnTime() {
+        int holds = 1_000_000;
+        int horizon = 3 * ReservationBook.DEFAULT_WHEEL_SIZE;
+        ReservationBook book = new ReservationBook(0);
+        List<Reservation> reservations = new ArrayList<>(holds);
+        for (int i = 0; i < holds; i++) {
+            Reservation reservation = book.hold(i + 1, CAR_OR_SUV, i + 1, i % horizon + 1);
+            reservations.add(reservation);
+            if (i % 10 == 0) {
+                assertThat(book.cancel(reservation)).isTrue();
+            }
+        }
+
+        long[] expiredAt = new long[horizon + 1];
+        for (int second = 1; second <= horizon; second++) {
+            long now = second;
+            book.expire(second, reservation -> {
+                assertThat(reservation.getExpiresAtEpochSecond()).isEqualTo(now);
+                expiredAt[(int) now]++;
+            });
+        }
+
+        long expired = 0;
+        for (Reservation reservation : reservations) {
+            assertThat(reservation.getState()).isEqualTo(reservation.getReservationNumber() % 10 == 1 ? CANCELLED : EXPIRED);
+            if (reservation.getState() == EXPIRED) {
+                expired++;
+            }
+        }
+        assertThat(expired).isEqualTo(holds - holds / 10);
+        assertThat(Arrays.stream(expiredAt).sum()).isEqualTo(expired);
+    }
+
+    @Test
+    void testReserveClaimCancelAndExpire() throws ParkingIsFullException {
+        ParkingVenue venue = ParkingVenue.createParkingVenue(AIRPORT, Map.of(CAR_OR_SUV, 2));
+
+        Reservation claimed = venue.reserve(CAR_OR_SUV, NOW, Duration.ofMinutes(30));
+        Reservation expiring = venue.reserve(CAR_OR_SUV, NOW, Duration.ofMinutes(10));
+        assertThat(venue.getFreeSpots(CAR_OR_SUV)).isZero();
+        assertThatExceptionOfType(ParkingIsFullException.class)
+                .isThrownBy(() -> venue.park(CAR_OR_SUV, NOW));
+
+        ParkingTicket ticket = venue.claim(claimed, NOW.plusMinutes(20));
+        assertThat(ticket.getSpotNumber()).isEqualTo(claimed.getSpotNumber());
+        assertThat(claimed.getState()).isEqualTo(CLAIMED);
+        assertThat(expiring.getState()).isEqualTo(EXPIRED);
+        assertThat(venue.getFreeSpots(CAR_OR_SUV)).isEqualTo(1);
+        assertThatExceptionOfType(ReservationNotHeldException.class)
+                .isThrownBy(() -> venue.claim(expiring, NOW.plusMinutes(20)))
+                .withMessage("Reservation [2] is [EXPIRED]");
+
+        Reservation cancelled = venue.reserve(CAR_OR_SUV, NOW.plusMinutes(30), Duration.ofHours(2));
+        assertThat(venue.cancel(cancelled)).isTrue();
+        assertThat(venue.cancel(cancelled)).isFalse();
+        assertThat(venue.expireReservations(NOW.plusDays(1))).isZero();
+        assertThat(venue.getFreeSpots(CAR_OR_SUV)).isEqualTo(1);
+
+        venue.unpark(CAR_OR_SUV, ticket, NOW.plusHours(5));
+        assertThat(venue.getFreeSpots(CAR_OR_SUV)).isEqualTo(2);
+    }
+
+    // Cancelling another venue's reservation must fail without leaving a book behind in this venue.
+    @Test
+    void testCancelForeignReservation() throws ParkingIsFullException {
+        ParkingVenue venue = ParkingVenue.createParkingVenue(AIRPORT, Map.of(CAR_OR_SUV, 2));
+        ParkingVenue other = ParkingVenue.createParkingVenue(AIRPORT, Map.of(CAR_OR_SUV, 2));
+        Reservation foreign = other.reserve(CAR_OR_SUV, NOW, Duration.ofDays(2));
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> venue.cancel(foreign))
+                .withMessage("Reservation [1] belongs to another venue");
+        Reservation held = venue.reserve(CAR_OR_SUV, NOW, Duration.ofMinutes(10));
+        assertThat(venue.expireReservations(NOW.plusMinutes(11))).isEqualTo(1);
+        assertThat(held.getState()).isEqualTo(EXPIRED);
+        assertThat(foreign.getState()).isEqualTo(HELD);
+    }
+}
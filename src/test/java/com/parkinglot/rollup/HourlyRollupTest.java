@@ -0,0 +1,65 @@
+package com.parkinglot.rollup;
+
+import com.parkinglot.ParkingVenue;
+import com.parkinglot.entity.ParkingTicket;
+import com.parkinglot.exceptions.ParkingIsFullException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+
+import static com.parkinglot.enums.Spot.CAR_OR_SUV;
+import static com.parkinglot.enums.Spot.MOTORCYCLE_OR_SCOOTER;
+import static com.parkinglot.enums.Venue.AIRPORT;
+import static java.time.ZoneOffset.UTC;
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class HourlyRollupTest {
+
+    private static final LocalDateTime ENTRY = LocalDateTime.of(2022, 5, 29, 14, 0, 0);
+
+    @Test
+    void testRollupMatchesReceipts() throws ParkingIsFullException {
+        ParkingVenue venue = ParkingVenue.createParkingVenue(AIRPORT, Map.of(MOTORCYCLE_OR_SCOOTER, 10, CAR_OR_SUV, 10));
+        HourlyRollup rollup = venue.enableRollup();
+
+        ParkingTicket car1 = venue.park(CAR_OR_SUV, ENTRY);
+        ParkingTicket car2 = venue.park(CAR_OR_SUV, ENTRY.plusMinutes(10));
+        ParkingTicket car3 = venue.park(CAR_OR_SUV, ENTRY.plusMinutes(20));
+        ParkingTicket motorcycle = venue.park(MOTORCYCLE_OR_SCOOTER, ENTRY);
+        long revenue = venue.unpark(CAR_OR_SUV, car1, ENTRY.plusMinutes(30)).getFees()
+                + venue.unpark(CAR_OR_SUV, car2, ENTRY.plusHours(13)).getFees()
+                + venue.unpark(CAR_OR_SUV, car3, ENTRY.plusDays(3)).getFees();
+        long motorcycleFee = venue.unpark(MOTORCYCLE_OR_SCOOTER, motorcycle, ENTRY.plusHours(5)).getFees();
+
+        long from = ENTRY.toEpochSecond(UTC);
+        RollupTotals firstDay = rollup.getTotals(CAR_OR_SUV, from, from + 24 * 3600);
+        assertThat(firstDay.getExits()).isEqualTo(2);
+        assertThat(firstDay.getRevenue()).isEqualTo(60 + 80);
+        assertThat(firstDay.getPeakOccupancy()).isEqualTo(3);
+        assertThat(firstDay.getDwellHistogram()).containsExactly(1, 0, 0, 0, 0, 1, 0, 0, 0);
+
+        RollupTotals month = rollup.getTotals(CAR_OR_SUV, from, from + HourlyRollup.HOURS * 3600L);
+        assertThat(month.getExits()).isEqualTo(3);
+        assertThat(month.getRevenue()).isEqualTo(revenue);
+        assertThat(month.getDwellHistogram()[7]).isEqualTo(1);
+        assertThat(rollup.getTotals(from, from + HourlyRollup.HOURS * 3600L).getRevenue()).isEqualTo(revenue + motorcycleFee);
+    }
+
+    @Test
+    void testRingRecyclesHoursOlderThanThirtyDays() {
+        HourlyRollup rollup = new HourlyRollup(Set.of(CAR_OR_SUV));
+        long hour = ENTRY.toEpochSecond(UTC);
+        long nextMonth = hour + HourlyRollup.HOURS * 3600L;
+        rollup.recordExit(CAR_OR_SUV, hour, 600, 60, 1);
+        rollup.recordExit(CAR_OR_SUV, nextMonth, 600, 100, 1);
+        rollup.recordExit(CAR_OR_SUV, hour, 600, 60, 1);
+
+        assertThat(rollup.getTotals(CAR_OR_SUV, hour, hour + 3600).getExits()).isZero();
+        RollupTotals totals = rollup.getTotals(CAR_OR_SUV, nextMonth, nextMonth + 3600);
+        assertThat(totals.getExits()).isEqualTo(1);
+        assertThat(totals.getRevenue()).isEqualTo(100);
+    }
+}
@@ -0,0 +1,80 @@
+package com.parkinglot.simulation;
+
+import com.parkinglot.enums.Spot;
+import com.parkinglot.replay.SessionFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static com.parkinglot.enums.Spot.CAR_OR_SUV;
+import static com.parkinglot.enums.Spot.MOTORCYCLE_OR_SCOOTER;
+import static com.parkinglot.enums.Venue.AIRPORT;
+import static com.parkinglot.enums.Venue.MALL;
+import static com.parkinglot.enums.Venue.STADIUM;
+import static java.time.ZoneOffset.UTC;
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class SimulatorTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2022, 6, 1, 10, 0, 0);
+
+    // The outcome of a run must not depend on how many gate threads replay it.
+    @Test
+    void testRunsAreDeterministic() {
+        SimulationTrace trace = SimulationTrace.poisson(MALL, START, Map.of(CAR_OR_SUV, 30.0, MOTORCYCLE_OR_SCOOTER, 5.0),
+                Duration.ofMinutes(60), Duration.ofHours(3), 42);
+        Map<Spot, Integer> capacity = Map.of(CAR_OR_SUV, 1_500, MOTORCYCLE_OR_SCOOTER, 200);
+
+        SimulationReport single = new Simulator(capacity, 1).run(trace);
+        SimulationReport parallel = new Simulator(capacity, 4).run(trace);
+        assertThat(single.getRejections()).isPositive();
+        assertThat(parallel.getParks()).isEqualTo(single.getParks());
+        assertThat(parallel.getRejections()).isEqualTo(single.getRejections());
+        assertThat(parallel.getRevenue()).isEqualTo(single.getRevenue());
+        assertThat(single.getParks() + single.getRejections()).isEqualTo(trace.size());
+        assertThat(single.getUnparks()).isEqualTo(single.getParks());
+        assertThat(parallel.getParkLatency().getCount()).isEqualTo(parallel.getParks());
+
+        SimulationTrace again = SimulationTrace.poisson(MALL, START, Map.of(CAR_OR_SUV, 30.0, MOTORCYCLE_OR_SCOOTER, 5.0),
+                Duration.ofMinutes(60), Duration.ofHours(3), 42);
+        assertThat(new Simulator(capacity, 2).run(again).getRevenue()).isEqualTo(single.getRevenue());
+    }
+
+    @Test
+    void testEventEgressLeavesWithinWindow() {
+        SimulationTrace trace = SimulationTrace.eventEgress(STADIUM, START, Map.of(CAR_OR_SUV, 2_000),
+                Duration.ofHours(1), Duration.ofHours(2), Duration.ofMinutes(20), 7);
+        for (int vehicle = 0; vehicle < trace.size(); vehicle++) {
+            long exit = trace.getArrival(vehicle) + trace.getStay(vehicle);
+            assertThat(exit).isBetween(Duration.ofHours(3).toSeconds(), Duration.ofHours(3).plusMinutes(20).toSeconds());
+        }
+        SimulationReport report = new Simulator(Map.of(CAR_OR_SUV, 2_000), 2).run(trace);
+        assertThat(report.getParks()).isEqualTo(2_000);
+        assertThat(report.getRejectionRate()).isZero();
+    }
+
+    @Test
+    void testLoadsRecordedSessions(@TempDir Path directory) {
+        Path file = directory.resolve("sessions.bin");
+        long entry = START.toEpochSecond(UTC);
+        try (SessionFile.Writer writer = SessionFile.create(file)) {
+            writer.add(AIRPORT, CAR_OR_SUV, entry + 60, entry + 60 + 3_600);
+            writer.add(MALL, CAR_OR_SUV, entry, entry + 60);
+            writer.add(AIRPORT, CAR_OR_SUV, entry + 30, entry + 30 + 13 * 3_600);
+        }
+        SimulationTrace trace = SimulationTrace.load(file, AIRPORT);
+        assertThat(trace.size()).isEqualTo(2);
+        assertThat(trace.getStart()).isEqualTo(START.plusSeconds(30));
+        assertThat(trace.getArrival(1)).isEqualTo(30);
+
+        SimulationReport report = new Simulator(Map.of(CAR_OR_SUV, 1), 1).run(trace);
+        assertThat(report.getParks()).isEqualTo(1);
+        assertThat(report.getRejections()).isEqualTo(1);
+        assertThat(report.getRevenue()).isEqualTo(80);
+    }
+}
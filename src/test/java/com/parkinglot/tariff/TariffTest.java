@@ -0,0 +1,71 @@
+package com.parkinglot.tariff;
+
+import com.parkinglot.exceptions.SpotNotFoundException;
+import com.parkinglot.exceptions.TariffConfigurationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+
+import static com.parkinglot.enums.Spot.*;
+import static com.parkinglot.enums.Venue.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+
+class TariffTest {
+
+    private final Tariff tariff = TariffEngine.getDefault().getTariff();
+
+    // The bundled tariff must reproduce the hard-coded fee rules it replaced, inside and beyond the lookup table.
+    @Test
+    void testDefaultTariffMatchesVenueRules() {
+        for (long hours = 1; hours <= 3 * SpotTariff.TABLE_HOURS; hours++) {
+            assertThat(tariff.fee(MALL, MOTORCYCLE_OR_SCOOTER, hours)).isEqualTo(10 * hours);
+            assertThat(tariff.fee(MALL, CAR_OR_SUV, hours)).isEqualTo(20 * hours);
+            assertThat(tariff.fee(MALL, BUS_OR_TRUCK, hours)).isEqualTo(50 * hours);
+
+            long stadium = 30 + (hours > 4 ? 60 : 0) + (hours > 12 ? 100 * (hours - 12) : 0);
+            assertThat(tariff.fee(STADIUM, MOTORCYCLE_OR_SCOOTER, hours)).isEqualTo(stadium);
+            assertThat(tariff.fee(STADIUM, CAR_OR_SUV, hours)).isEqualTo(2 * stadium);
+
+            long airportMotorcycle = hours <= 1 ? 0 : hours <= 8 ? 40 : hours <= 24 ? 60 : 80 * (hours / 24 + 1);
+            long airportCar = hours <= 12 ? 60 : hours <= 24 ? 80 : 100 * (hours / 24 + 1);
+            assertThat(tariff.fee(AIRPORT, MOTORCYCLE_OR_SCOOTER, hours)).isEqualTo(airportMotorcycle);
+            assertThat(tariff.fee(AIRPORT, CAR_OR_SUV, hours)).isEqualTo(airportCar);
+        }
+    }
+
+    @Test
+    void testUnsupportedSpot() {
+        assertThatExceptionOfType(SpotNotFoundException.class)
+                .isThrownBy(() -> tariff.fee(STADIUM, BUS_OR_TRUCK, 1))
+                .withMessage("Spot type [BUS_OR_TRUCK] is not supported");
+    }
+
+    @Test
+    void testReloadSwapsTariff() {
+        Properties properties = new Properties();
+        properties.setProperty("MALL.CAR_OR_SUV.bands", "2:15");
+        properties.setProperty("MALL.CAR_OR_SUV.hourly", "25");
+        TariffEngine engine = new TariffEngine(tariff);
+
+        engine.reload(Tariff.compile(properties));
+
+        assertThat(engine.fee(MALL, CAR_OR_SUV, 2)).isEqualTo(15);
+        assertThat(engine.fee(MALL, CAR_OR_SUV, 3)).isEqualTo(40);
+    }
+
+    @Test
+    void testInvalidConfiguration() {
+        Properties properties = new Properties();
+        properties.setProperty("MALL.CAR_OR_SUV.weekly", "100");
+        assertThatExceptionOfType(TariffConfigurationException.class)
+                .isThrownBy(() -> Tariff.compile(properties))
+                .withMessage("Unknown tariff key [MALL.CAR_OR_SUV.weekly]");
+
+        properties.clear();
+        properties.setProperty("AIRPORT.CAR_OR_SUV.bands", "24:80,12:60");
+        assertThatExceptionOfType(TariffConfigurationException.class)
+                .isThrownBy(() -> Tariff.compile(properties));
+    }
+}
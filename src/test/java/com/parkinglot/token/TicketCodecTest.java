@@ -0,0 +1,91 @@
+package com.parkinglot.token;
+
+import com.parkinglot.entity.ParkingTicket;
+import com.parkinglot.tariff.Tariff;
+import com.parkinglot.tariff.TariffEngine;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static com.parkinglot.enums.Spot.CAR_OR_SUV;
+import static com.parkinglot.enums.Venue.AIRPORT;
+import static java.time.ZoneOffset.UTC;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+
+class TicketCodecTest {
+
+    private static final byte[] KEY = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15};
+    private static final LocalDateTime ENTRY = LocalDateTime.of(2022, 6, 1, 7, 30, 15);
+
+    private final TicketCodec codec = new TicketCodec(KEY);
+    private final ParkingTicket ticket = new ParkingTicket(123_456_789_012L, 4_321, ENTRY);
+
+    // Reference vector from the SipHash paper: key 00..0f, message 00..0f.
+    @Test
+    void testSipHashReferenceVector() {
+        assertThat(SipHash.hash(0x0706050403020100L, 0x0f0e0d0c0b0a0908L, 0x0706050403020100L, 0x0f0e0d0c0b0a0908L))
+                .isEqualTo(0x3f2acc7f57c29bdbL);
+    }
+
+    @Test
+    void testRoundTrip() {
+        String text = codec.encode(AIRPORT, CAR_OR_SUV, ticket);
+        assertThat(text).hasSize(TicketCodec.TEXT_LENGTH).matches("[0-9A-HJKMNP-TV-Z]+");
+
+        TicketToken token = new TicketToken();
+        assertThat(codec.decode(text, token)).isTrue();
+        assertThat(token.getVenue()).isEqualTo(AIRPORT);
+        assertThat(token.getSpot()).isEqualTo(CAR_OR_SUV);
+        assertThat(token.toTicket()).isEqualTo(ticket);
+        assertThat(codec.decode(text.toLowerCase().replace('0', 'o').replace('1', 'l'), token)).isTrue();
+        assertThat(token.getTicketNumber()).isEqualTo(ticket.getTicketNumber());
+
+        byte[] binary = new byte[TicketCodec.BINARY_LENGTH + 3];
+        codec.encode(AIRPORT, CAR_OR_SUV, 4_321, 123_456_789_012L, ENTRY.toEpochSecond(UTC), binary, 3);
+        assertThat(codec.decode(binary, 3, token)).isTrue();
+        assertThat(token.getSpotNumber()).isEqualTo(4_321);
+        assertThat(token.getEntryEpochSecond()).isEqualTo(ENTRY.toEpochSecond(UTC));
+    }
+
+    // Every single character change, and any token signed under another key, must be rejected.
+    @Test
+    void testTamperedTokensAreRejected() {
+        String text = codec.encode(AIRPORT, CAR_OR_SUV, ticket);
+        TicketToken token = new TicketToken();
+        for (int i = 0; i < text.length(); i++) {
+            char replacement = text.charAt(i) == 'Z' ? 'Y' : 'Z';
+            assertThat(codec.decode(text.substring(0, i) + replacement + text.substring(i + 1), token)).isFalse();
+        }
+        assertThat(codec.decode(text.substring(1), token)).isFalse();
+        assertThat(codec.decode(text.replace(text.charAt(0), 'U'), token)).isFalse();
+
+        byte[] otherKey = KEY.clone();
+        otherKey[0] = 1;
+        assertThat(new TicketCodec(otherKey).decode(text, token)).isFalse();
+
+        byte[] binary = new byte[TicketCodec.BINARY_LENGTH];
+        codec.encode(AIRPORT, CAR_OR_SUV, 1, 1, 0, binary, 0);
+        binary[15] ^= 1;
+        assertThat(codec.decode(binary, 0, token)).isFalse();
+        assertThat(codec.decode(binary, 1, token)).isFalse();
+    }
+
+    @Test
+    void testOfflineFeeMatchesTariff() {
+        Tariff tariff = TariffEngine.getDefault().getTariff();
+        TicketToken token = new TicketToken();
+        codec.decode(codec.encode(AIRPORT, CAR_OR_SUV, ticket), token);
+
+        assertThat(token.fee(ENTRY.plusHours(13).toEpochSecond(UTC), tariff)).isEqualTo(80);
+        assertThat(token.fee(ENTRY.plusHours(11).toEpochSecond(UTC), tariff)).isEqualTo(60);
+    }
+
+    @Test
+    void testInvalidKey() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new TicketCodec(new byte[8]))
+                .withMessage("Key must be 16 bytes, not [8]");
+    }
+}